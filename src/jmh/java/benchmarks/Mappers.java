@@ -0,0 +1,17 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * ObjectMapper variants compared by the benchmarks
+ */
+final class Mappers {
+
+    static final ObjectMapper PLAIN = new ObjectMapper();
+    static final ObjectMapper AFTERBURNER = new ObjectMapper().registerModule(new AfterburnerModule());
+    static final ObjectMapper BLACKBIRD = new ObjectMapper().registerModule(new BlackbirdModule());
+
+    private Mappers() {}
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import models.SingleUserResponse;
+import models.User;
+import models.UserListResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic ReqRes-shaped payloads for the benchmarks
+ */
+final class Payloads {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Payloads() {}
+
+    static User user(int id) {
+        User user = new User("user" + id + "@reqres.in", "First" + id, "Last" + id);
+        user.setId(id);
+        user.setAvatar("https://reqres.in/img/faces/" + id + "-image.jpg");
+        return user;
+    }
+
+    static UserListResponse.Support support() {
+        UserListResponse.Support support = new UserListResponse.Support();
+        support.setUrl("https://contentcaddy.io?utm_source=reqres&utm_medium=json&utm_campaign=referral");
+        support.setText("Tired of writing endless social media content? Let Content Caddy generate it for you.");
+        return support;
+    }
+
+    static byte[] userList(int users) throws JsonProcessingException {
+        List<User> data = new ArrayList<>(users);
+        for (int i = 1; i <= users; i++) {
+            data.add(user(i));
+        }
+        UserListResponse response = new UserListResponse();
+        response.setPage(1);
+        response.setPerPage(users);
+        response.setTotal(users);
+        response.setTotalPages(1);
+        response.setData(data);
+        response.setSupport(support());
+        return MAPPER.writeValueAsBytes(response);
+    }
+
+    static byte[] singleUser(int id) throws JsonProcessingException {
+        SingleUserResponse response = new SingleUserResponse();
+        response.setData(user(id));
+        response.setSupport(support());
+        return MAPPER.writeValueAsBytes(response);
+    }
+}
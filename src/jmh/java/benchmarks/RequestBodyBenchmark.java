@@ -0,0 +1,74 @@
+package benchmarks;
+
+import bodies.BodyTemplate;
+import bodies.UserBodies;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The testUpdateUserValid body built per request: Jackson, string concatenation as the
+ * simulations used to, and the pre-encoded UserBodies.USER template.
+ * Run with -prof gc and compare gc.alloc.rate.norm, the bytes allocated per body.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBodyBenchmark {
+
+    private final BodyTemplate template = UserBodies.USER;
+
+    private User body;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private ObjectWriter writer;
+    private byte[] buffer;
+
+    @Setup
+    public void setup() {
+        body = new User("morpheus.updated@example.com", "Morpheus", "Updated");
+        email = body.getEmail();
+        firstName = body.getFirstName();
+        lastName = body.getLastName();
+        writer = Mappers.PLAIN.writerFor(User.class);
+        buffer = new byte[256];
+    }
+
+    @Benchmark
+    public byte[] jackson() throws IOException {
+        return writer.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] concatenation() {
+        return ("{\"email\": \"" + email + "\", \"first_name\": \"" + firstName
+            + "\", \"last_name\": \"" + lastName + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] template() {
+        return template.render(email, firstName, lastName);
+    }
+
+    @Benchmark
+    public int templateReusedBuffer() {
+        return template.renderInto(buffer, 0, email, firstName, lastName);
+    }
+}
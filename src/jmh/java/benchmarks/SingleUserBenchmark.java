@@ -0,0 +1,111 @@
+package benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import models.SingleUserResponse;
+import models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mirrors extract().as(SingleUserResponse.class) and the User request body
+ * serialized by testUpdateUserValid, across mapping strategies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SingleUserBenchmark {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private byte[] payload;
+    private User body;
+    private ObjectReader plainReader;
+    private ObjectReader afterburnerReader;
+    private ObjectReader blackbirdReader;
+    private ObjectWriter plainWriter;
+    private ObjectWriter afterburnerWriter;
+    private ObjectWriter blackbirdWriter;
+
+    @Setup
+    public void setup() throws IOException {
+        payload = Payloads.singleUser(2);
+        body = new User("morpheus.updated@example.com", "Morpheus", "Updated");
+        plainReader = Mappers.PLAIN.readerFor(SingleUserResponse.class);
+        afterburnerReader = Mappers.AFTERBURNER.readerFor(SingleUserResponse.class);
+        blackbirdReader = Mappers.BLACKBIRD.readerFor(SingleUserResponse.class);
+        plainWriter = Mappers.PLAIN.writerFor(User.class);
+        afterburnerWriter = Mappers.AFTERBURNER.writerFor(User.class);
+        blackbirdWriter = Mappers.BLACKBIRD.writerFor(User.class);
+    }
+
+    @Benchmark
+    public SingleUserResponse readDatabind() throws IOException {
+        return Mappers.PLAIN.readValue(payload, SingleUserResponse.class);
+    }
+
+    @Benchmark
+    public SingleUserResponse readReusedReader() throws IOException {
+        return plainReader.readValue(payload);
+    }
+
+    @Benchmark
+    public SingleUserResponse readAfterburner() throws IOException {
+        return afterburnerReader.readValue(payload);
+    }
+
+    @Benchmark
+    public SingleUserResponse readBlackbird() throws IOException {
+        return blackbirdReader.readValue(payload);
+    }
+
+    @Benchmark
+    public byte[] writeDatabind() throws IOException {
+        return Mappers.PLAIN.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] writeReusedWriter() throws IOException {
+        return plainWriter.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] writeAfterburner() throws IOException {
+        return afterburnerWriter.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] writeBlackbird() throws IOException {
+        return blackbirdWriter.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] writeStreaming() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try (JsonGenerator gen = JSON.createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeStringField("email", body.getEmail());
+            gen.writeStringField("first_name", body.getFirstName());
+            gen.writeStringField("last_name", body.getLastName());
+            gen.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import models.User;
+import models.UserListResponse;
+import models.UserListStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mirrors extract().as(UserListResponse.class) across page sizes and mapping strategies.
+ * Run with -prof gc to see the allocation rate per strategy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserListDeserializationBenchmark {
+
+    @Param({"1", "6", "1000", "100000"})
+    public int users;
+
+    private byte[] payload;
+    private ObjectReader plainReader;
+    private ObjectReader afterburnerReader;
+    private ObjectReader blackbirdReader;
+
+    @Setup
+    public void setup() throws IOException {
+        payload = Payloads.userList(users);
+        plainReader = Mappers.PLAIN.readerFor(UserListResponse.class);
+        afterburnerReader = Mappers.AFTERBURNER.readerFor(UserListResponse.class);
+        blackbirdReader = Mappers.BLACKBIRD.readerFor(UserListResponse.class);
+    }
+
+    @Benchmark
+    public UserListResponse databind() throws IOException {
+        return Mappers.PLAIN.readValue(payload, UserListResponse.class);
+    }
+
+    @Benchmark
+    public UserListResponse reusedReader() throws IOException {
+        return plainReader.readValue(payload);
+    }
+
+    @Benchmark
+    public UserListResponse afterburner() throws IOException {
+        return afterburnerReader.readValue(payload);
+    }
+
+    @Benchmark
+    public UserListResponse blackbird() throws IOException {
+        return blackbirdReader.readValue(payload);
+    }
+
+    @Benchmark
+    public UserListResponse streaming(Blackhole bh) throws IOException {
+        try (UserListStream stream = UserListStream.open(payload)) {
+            while (stream.hasNext()) {
+                User user = stream.next();
+                bh.consume(user);
+            }
+            return stream.metadata();
+        }
+    }
+}
@@ -1,56 +1,75 @@
 import org.testng.annotations.*;
-import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import models.*;
+import bodies.UserBodies;
+import client.ApiClient;
+import client.ApiResponse;
+import lookup.UserLookup;
+import pagination.PageCrawler;
+import cache.UserCache;
+import config.RequestSpecs;
+import contract.SchemaRegistry;
+import latency.LatencyHarness;
+import latency.LatencyReport;
+import latency.LatencySlo;
+import logging.ExchangeCapture;
 import config.TestConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
+import server.ReqResStandIn;
+import transport.PooledTransport;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static config.TestConfig.*;
 import static io.restassured.RestAssured.*;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.Matchers.*;
-import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+import static contract.SchemaRegistry.matchesSchema;
 import static org.testng.Assert.*;
 
 public class ApiTest {
 
   private static final Logger LOG = LoggerFactory.getLogger(ApiTest.class);
-  private RequestSpecification requestSpec;
+
+  // RestAssured, or java.net.http with -Dapi.client=jdk, for the data-provider tests
+  private final ApiClient api = ApiClient.forRun();
+
+  @BeforeSuite(alwaysRun = true)
+  public void startLocalTarget() {
+    ReqResStandIn.startIfLocal();
+  }
 
   @BeforeClass
   public void setupClass() {
-    RestAssured.baseURI = BASE_URL;
-    RestAssured.basePath = API_PATH;
-    requestSpec = given()
-        .contentType(CONTENT_TYPE_JSON)
-        .accept(CONTENT_TYPE_JSON)
-        .header("x-api-key", "reqres-free-v1")
-        .log()
-        .ifValidationFails();
-
     LOG.info("=== API Test Suite Initialized ===");
     LOG.info("Base URL: {}{}", BASE_URL, API_PATH);
+    LOG.info("Data-provider client: {}", api.name());
+  }
+
+  private RequestSpecification requestSpec() {
+    return RequestSpecs.base();
   }
 
   @Test(description = "Verify single user retrieval with valid ID", priority = 1)
   public void testGetSingleUserValid() {
 
     SingleUserResponse response = given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .pathParam("userId", VALID_USER_ID)
         .when()
-        .log()
-        .all()
         .get("/users/{userId}")
         .then()
-        .log()
-        .all()
         .statusCode(200)
         .contentType(CONTENT_TYPE_JSON)
         .extract()
@@ -80,16 +99,12 @@ public class ApiTest {
   @Test(description = "Verify user list retrieval with pagination", priority = 2)
   public void testGetUserListWithPagination() {
     UserListResponse response = given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .queryParam("page", 1)
         .queryParam("per_page", DEFAULT_PAGE_SIZE)
         .when()
-        .log()
-        .all()
         .get("/users")
         .then()
-        .log()
-        .all()
         .statusCode(200)
         .contentType(CONTENT_TYPE_JSON)
         .extract()
@@ -108,29 +123,70 @@ public class ApiTest {
     LOG.info("✓ User list test passed ");
   }
 
-  @DataProvider(name = "validUserIds")
+  @Test(description = "Stream user list page without materializing the data array", priority = 3)
+  public void testStreamUserListPage() throws IOException {
+    InputStream body = given()
+        .spec(requestSpec())
+        .queryParam("page", 1)
+        .queryParam("per_page", DEFAULT_PAGE_SIZE)
+        .when()
+        .get("/users")
+        .then()
+        .statusCode(200)
+        .contentType(CONTENT_TYPE_JSON)
+        .extract()
+        .asInputStream();
+
+    AtomicInteger count = new AtomicInteger();
+    UserListResponse metadata = UserListStream.forEach(body, user -> {
+      assertNotNull(user.getId(), "Streamed user ID should not be null");
+      assertNotNull(user.getEmail(), "Streamed email should not be null");
+      count.incrementAndGet();
+    });
+
+    assertEquals(metadata.getPage()
+        .intValue(), 1, "Page number should be 1");
+    assertEquals(metadata.getPerPage()
+        .intValue(), DEFAULT_PAGE_SIZE, "Per page should match requested size");
+    assertTrue(metadata.getTotalPages() > 0, "Total pages should be greater than 0");
+    assertNull(metadata.getData(), "Streaming metadata should not hold the data list");
+    assertEquals(count.get(), DEFAULT_PAGE_SIZE, "Streamed user count should match per_page");
+
+    LOG.info("✓ Streaming user list test passed");
+  }
+
+  @Test(description = "Crawl every user list page with a pipelined window", priority = 3)
+  public void testPaginationAcrossPages() throws IOException {
+    List<Integer> ids = new ArrayList<>();
+    PageCrawler.Result result = PageCrawler.users(2)
+        .window(4)
+        .crawl(user -> {
+          assertNotNull(user.getEmail(), "Crawled email should not be null");
+          ids.add(user.getId());
+        });
+
+    assertNotNull(result.totalPages, "First page should report total_pages");
+    assertEquals(result.pages, result.totalPages.intValue(), "Every page should be fetched");
+    assertEquals(result.users, result.total.longValue(), "Crawled user count should match total");
+    for (int i = 1; i < ids.size(); i++) {
+      assertTrue(ids.get(i) > ids.get(i - 1), "Users should arrive in page order without duplicates");
+    }
+
+    LOG.info("✓ Pagination crawl test passed: {}", result);
+  }
+
+  @DataProvider(name = "validUserIds", parallel = true)
   public Object[][] validUserIds() {
     return new Object[][]{{1}, {2}, {3}, {7}, {12}};
   }
 
   @Test(dataProvider = "validUserIds", description = "Test multiple valid user IDs")
   public void testGetMultipleValidUsers(int userId) {
-    SingleUserResponse response = given()
-        .spec(requestSpec)
-        .pathParam("userId", userId)
-        .when()
-        .log()
-        .all()
-        .get("/users/{userId}")
-        .then()
-        .log()
-        .all()
-        .statusCode(200)
-        .contentType(CONTENT_TYPE_JSON)
-        .extract()
-        .as(SingleUserResponse.class);
+    ApiResponse response = api.get("/users/{userId}", userId);
+    assertEquals(response.statusCode(), 200, "Status for user " + userId);
+    assertTrue(response.contentType().startsWith(CONTENT_TYPE_JSON), "Content type should be JSON");
 
-    User user = response.getData();
+    User user = response.as(SingleUserResponse.class).getData();
     assertNotNull(user, "User data should not be null for ID " + userId);
     assertEquals(user.getId()
         .intValue(), userId, "User ID should match");
@@ -142,21 +198,94 @@ public class ApiTest {
     LOG.info("✓ Valid user test passed for ID: {}", userId);
   }
 
+  @Test(description = "Coalesce concurrent user lookups into one bulk request", priority = 3)
+  public void testCoalescedUserLookup() {
+    int[] ids = {1, 2, 3, 7, 12, 2, 3, 999};
+    UserLookup.Stats stats;
+    List<CompletableFuture<User>> results = new ArrayList<>();
+    try (UserLookup lookup = new UserLookup(UserLookup.restAssuredSource(), 50, 50_000, 4)) {
+      for (int id : ids) {
+        results.add(lookup.get(id));
+      }
+      for (int i = 0; i < ids.length; i++) {
+        User user = results.get(i).join();
+        if (ids[i] == 999) {
+          assertNull(user, "Unknown user should resolve to null");
+        } else {
+          assertNotNull(user, "User should be found for ID " + ids[i]);
+          assertEquals(user.getId().intValue(), ids[i], "User ID should match");
+        }
+      }
+      stats = lookup.stats();
+    }
+
+    assertEquals(stats.lookups, ids.length, "Every lookup should be counted");
+    assertEquals(stats.dedupHits, 2, "Repeated in-flight IDs should share one fetch");
+    assertEquals(stats.batches, 1, "Lookups within the window should form one batch");
+    assertEquals(stats.maxBatchSize, 6, "Batch should hold the distinct IDs");
+
+    // A lookup after close fails at once instead of waiting for a batch that is never sent
+    UserLookup closed = new UserLookup(UserLookup.restAssuredSource(), 50, 50_000, 4);
+    closed.close();
+    assertTrue(closed.get(VALID_USER_ID).isCompletedExceptionally(), "Lookup after close should fail");
+
+    LOG.info("✓ Coalesced lookup test passed: {}", stats);
+  }
+
+  @Test(description = "Serve repeated user reads from the cache and revalidate with ETags", priority = 3)
+  public void testCachedUserRevalidation() throws IOException {
+    // TTL 0: every read after the first is a conditional request
+    UserCache cache = new UserCache(UserCache.restAssuredOrigin(), 100, 0);
+
+    SingleUserResponse first = cache.get(VALID_USER_ID);
+    SingleUserResponse second = cache.get(VALID_USER_ID);
+    assertNotNull(first, "User should be found");
+    assertEquals(second.getData().getId().intValue(), VALID_USER_ID, "Cached user ID should match");
+
+    cache.write(VALID_USER_ID, () -> given()
+        .spec(requestSpec())
+        .pathParam("userId", VALID_USER_ID)
+        .body("{\"job\": \"cached\"}")
+        .put("/users/{userId}")
+        .then()
+        .statusCode(200));
+    cache.get(VALID_USER_ID);
+
+    UserCache.Stats stats = cache.stats();
+    assertEquals(stats.invalidations, 1, "Write should invalidate the cached user");
+    // The second read is a conditional GET: a 304 revalidates, a target without ETags answers 200
+    assertEquals(stats.misses + stats.revalidated, 3, "Every read should go to the origin with TTL 0");
+    if (TestConfig.LOCAL_TARGET) {
+      assertEquals(stats.misses, 2, "Reads before the first and after the write should go to the origin");
+      assertEquals(stats.revalidated, 1, "Unchanged user should be revalidated with 304");
+      assertTrue(stats.bytesSaved > 0, "Revalidation should save the body transfer");
+    }
+
+    // A read that overlaps a write must not put the pre-write user back
+    UserCache.Origin origin = UserCache.restAssuredOrigin();
+    UserCache[] racing = new UserCache[1];
+    racing[0] = new UserCache((id, etag) -> {
+      UserCache.Fetch fetch = origin.fetch(id, etag);
+      racing[0].invalidate(id);
+      return fetch;
+    }, 100, 60_000);
+    assertNotNull(racing[0].get(VALID_USER_ID), "Overlapping read should still return the user");
+    assertEquals(racing[0].size(), 0, "Overlapping read should not be cached");
+
+    LOG.info("✓ Cached user test passed: {}", stats);
+  }
+
   @Test(description = "Update existing user with valid data", priority = 4)
   public void testUpdateUserValid() {
     User updateUser = new User("morpheus.updated@example.com", "Morpheus", "Updated");
 
     Response response = given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .pathParam("userId", VALID_USER_ID)
-        .body(updateUser)
+        .body(UserBodies.USER.render(updateUser.getEmail(), updateUser.getFirstName(), updateUser.getLastName()))
         .when()
-        .log()
-        .all()
         .put("/users/{userId}")
         .then()
-        .log()
-        .all()
         .statusCode(200)
         .contentType(CONTENT_TYPE_JSON)
         .extract()
@@ -181,21 +310,72 @@ public class ApiTest {
     LOG.info("✓ User update test passed");
   }
 
+  @Test(description = "Update user with fields that need JSON escaping", priority = 4)
+  public void testUpdateUserEscapedFields() {
+    String email = "neo+\"the one\"@example.com";
+    String firstName = "Thomas\\Anderson\té世";
+    String lastName = "Neo 😎\n";
+
+    byte[] body = UserBodies.USER.render(email, firstName, lastName);
+    assertEquals(body.length, UserBodies.USER.length(email, firstName, lastName), "Rendered body should be sized exactly");
+
+    Response response = given()
+        .spec(requestSpec())
+        .pathParam("userId", VALID_USER_ID)
+        .body(body)
+        .when()
+        .put("/users/{userId}")
+        .then()
+        .statusCode(200)
+        .contentType(CONTENT_TYPE_JSON)
+        .extract()
+        .response();
+
+    assertEquals(response.jsonPath().getString("email"), email, "Email should round-trip unchanged");
+    assertEquals(response.jsonPath().getString("first_name"), firstName, "First name should round-trip unchanged");
+    assertEquals(response.jsonPath().getString("last_name"), lastName, "Last name should round-trip unchanged");
+
+    LOG.info("✓ Escaped body template test passed");
+  }
+
+  @Test(description = "Captured write exchanges show the JSON body for the failure log", priority = 4)
+  public void testCapturedWriteExchangeShowsJsonBody() {
+    ExchangeCapture.clear();
+    byte[] body = UserBodies.NAME.render("Captured", "Body");
+
+    given()
+        .spec(requestSpec())
+        .pathParam("userId", VALID_USER_ID)
+        .body(body)
+        .when()
+        .put("/users/{userId}")
+        .then()
+        .statusCode(200);
+
+    // What ExchangeLogListener logs if a write test fails here
+    List<String> exchanges = ExchangeCapture.formatted();
+    if (exchanges.isEmpty()) {
+      throw new SkipException("Exchange capture is off with -Dapi.log=always");
+    }
+    String put = exchanges.get(exchanges.size() - 1);
+    assertTrue(put.startsWith("PUT "), "Last captured exchange should be the PUT: " + put);
+    assertTrue(put.contains(new String(body, StandardCharsets.UTF_8)), "Captured PUT should show the JSON body: " + put);
+    assertFalse(put.contains("[B@"), "Captured PUT should not show the byte[] identity: " + put);
+
+    LOG.info("✓ Captured write exchange test passed");
+  }
+
   @Test(description = "Partially update user with PATCH", priority = 5)
   public void testPartiallyUpdateUser() {
-    String partialUpdateJson = "{\"first_name\": \"Neo\"}";
+    byte[] partialUpdateJson = UserBodies.FIRST_NAME.render("Neo");
 
     Response response = given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .pathParam("userId", VALID_USER_ID)
         .body(partialUpdateJson)
         .when()
-        .log()
-        .all()
         .patch("/users/{userId}")
         .then()
-        .log()
-        .all()
         .statusCode(200)
         .contentType(CONTENT_TYPE_JSON)
         .time(lessThan((long) DEFAULT_TIMEOUT_MS), MILLISECONDS)
@@ -219,40 +399,27 @@ public class ApiTest {
   @Test(description = "Delete existing user", priority = 6)
   public void testDeleteUserValid() {
     given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .pathParam("userId", VALID_USER_ID)
         .when()
-        .log()
-        .all()
         .delete("/users/{userId}")
         .then()
-        .log()
-        .all()
         .statusCode(204)
         .time(lessThan((long) DEFAULT_TIMEOUT_MS), MILLISECONDS);
 
     LOG.info("✓ User deletion test passed");
   }
 
-  @DataProvider(name = "invalidUserIds")
+  @DataProvider(name = "invalidUserIds", parallel = true)
   public Object[][] invalidUserIds() {
     return new Object[][]{{"abc"}, {"-1"}, {"0"}, {"999"}, {"1.5"}, {"!@#"}};
   }
 
   @Test(dataProvider = "invalidUserIds", description = "Test invalid user ID formats")
   public void testInvalidUserIdFormats(String invalidId) {
-    given()
-        .spec(requestSpec)
-        .pathParam("userId", invalidId)
-        .when()
-        .log()
-        .all()
-        .get("/users/{userId}")
-        .then()
-        .log()
-        .all()
-        .statusCode(404)
-        .time(lessThan((long) DEFAULT_TIMEOUT_MS), MILLISECONDS);
+    ApiResponse response = api.get("/users/{userId}", invalidId);
+    assertEquals(response.statusCode(), 404, "Status for user ID " + invalidId);
+    assertTrue(response.timeMillis() < DEFAULT_TIMEOUT_MS, "Response time should be under " + DEFAULT_TIMEOUT_MS + "ms");
 
     LOG.info("✓ Invalid user ID test passed for ID: {}", invalidId);
   }
@@ -261,15 +428,11 @@ public class ApiTest {
   public void testInvalidPaginationParameters() {
     // Test negative page number - ReqRes returns the page as provided
     UserListResponse response1 = given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .queryParam("page", -1)
         .when()
-        .log()
-        .all()
         .get("/users")
         .then()
-        .log()
-        .all()
         .statusCode(200)
         .extract()
         .as(UserListResponse.class);
@@ -279,15 +442,11 @@ public class ApiTest {
 
     // Test page 0 - API defaults to page 1
     UserListResponse response2 = given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .queryParam("page", 0)
         .when()
-        .log()
-        .all()
         .get("/users")
         .then()
-        .log()
-        .all()
         .statusCode(200)
         .extract()
         .as(UserListResponse.class);
@@ -295,6 +454,22 @@ public class ApiTest {
     assertEquals(response2.getPage()
         .intValue(), 1, "API should default page 0 to page 1");
 
+    // The stand-in caps per_page, as it caps ?ids=, so one request cannot encode the whole dataset
+    if (TestConfig.LOCAL_TARGET) {
+      UserListResponse response3 = given()
+          .spec(requestSpec())
+          .queryParam("per_page", 100_000_000)
+          .when()
+          .get("/users")
+          .then()
+          .statusCode(200)
+          .extract()
+          .as(UserListResponse.class);
+
+      assertEquals(response3.getPerPage().intValue(), 100, "Stand-in should cap per_page at 100");
+      assertTrue(response3.getData().size() <= 100, "Page should hold at most 100 users");
+    }
+
     LOG.info("✓ Invalid pagination test passed");
   }
 
@@ -302,84 +477,80 @@ public class ApiTest {
   public void testInvalidDataOnUserEndpoint() {
     // Test PUT with invalid/empty body
     given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .pathParam("userId", VALID_USER_ID)
         .body("{}")
         .when()
-        .log()
-        .all()
         .put("/users/{userId}")
         .then()
-        .log()
-        .all()
         .statusCode(200); // ReqRes accepts empty body for PUT
 
     // Test PUT with malformed JSON
     given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .pathParam("userId", VALID_USER_ID)
         .body("invalid json")
         .when()
-        .log()
-        .all()
         .put("/users/{userId}")
         .then()
-        .log()
-        .all()
         .statusCode(400); // Should return 400 Bad Request
 
     // Test PATCH with malformed JSON
     given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .pathParam("userId", VALID_USER_ID)
         .body("not a json")
         .when()
-        .log()
-        .all()
         .patch("/users/{userId}")
         .then()
-        .log()
-        .all()
         .statusCode(400);
 
     // Test DELETE with invalid user ID
     given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .pathParam("userId", "invalid-id")
         .when()
-        .log()
-        .all()
         .delete("/users/{userId}")
         .then()
-        .log()
-        .all()
         .statusCode(204); 
 
     LOG.info("✓ Invalid data test passed for /users/{id} endpoints");
   }
 
-  @Test(description = "Performance test - Response time validation", priority = 8)
+  @Test(description = "Performance test - Response time percentiles", priority = 8)
   public void testResponseTimePerformance() {
-    long startTime = System.currentTimeMillis();
+    LatencyReport report = LatencyHarness.of("GET /users/{userId}", () -> given()
+            .spec(requestSpec())
+            .pathParam("userId", VALID_USER_ID)
+            .when()
+            .get("/users/{userId}")
+            .then()
+            .statusCode(200))
+        .run();
+
+    report.assertMeets(
+        LatencySlo.p50(Duration.ofMillis(1000)),
+        LatencySlo.p99(Duration.ofMillis(2000)));
+    LOG.info("✓ Performance test passed - p50: {}ms, p99: {}ms",
+        report.percentileMillis(50.0), report.percentileMillis(99.0));
+  }
 
-    given()
-        .spec(requestSpec)
-        .pathParam("userId", VALID_USER_ID)
+  @Test(description = "Delay the user list with the delay query parameter", priority = 8)
+  public void testDelayedResponse() {
+    Response response = given()
+        .spec(requestSpec())
+        .queryParam("delay", 1)
         .when()
-        .log()
-        .all()
-        .get("/users/{userId}")
+        .get("/users")
         .then()
-        .log()
-        .all()
         .statusCode(200)
-        .time(lessThan(2000L), MILLISECONDS);
-
-    long endTime = System.currentTimeMillis();
-    long responseTime = endTime - startTime;
+        .body("data", not(empty()))
+        .extract()
+        .response();
 
-    assertTrue(responseTime < 2000, "Response time should be under 2 seconds, actual: " + responseTime + "ms");
-    LOG.info("✓ Performance test passed - Response time: {}ms", responseTime);
+    assertTrue(response.getTimeIn(MILLISECONDS) >= 1000,
+        "Response should take at least the requested delay, took " + response.getTimeIn(MILLISECONDS) + "ms");
+    LOG.info("✓ Delayed response test passed: {}ms", response.getTimeIn(MILLISECONDS));
   }
 
   @Test(description = "Test SQL injection attempts")
@@ -392,15 +563,11 @@ public class ApiTest {
 
     for (String payload : sqlInjectionPayloads) {
       Response response = given()
-          .spec(requestSpec)
+          .spec(requestSpec())
           .pathParam("userId", payload)
           .when()
-          .log()
-          .all()
           .get("/users/{userId}")
           .then()
-          .log()
-          .all()
           .extract()
           .response();
 
@@ -417,18 +584,14 @@ public class ApiTest {
   public void testApiContractCompliance() {
     // Validate response against JSON Schema
     given()
-        .spec(requestSpec)
+        .spec(requestSpec())
         .pathParam("userId", VALID_USER_ID)
         .when()
-        .log()
-        .all()
         .get("/users/{userId}")
         .then()
-        .log()
-        .all()
         .statusCode(200)
         .contentType(CONTENT_TYPE_JSON)
-        .body(matchesJsonSchemaInClasspath("schemas/single-user-schema.json"));
+        .body(matchesSchema(SchemaRegistry.SINGLE_USER));
 
     LOG.info("✓ API contract compliance test passed - JSON Schema validation successful");
   }
@@ -437,5 +600,13 @@ public class ApiTest {
   public void teardownClass() {
     LOG.info("=== API Test Suite Completed ===");
   }
+
+  @AfterSuite(alwaysRun = true)
+  public void stopLocalTarget() {
+    if (POOLED_TRANSPORT) {
+      LOG.info("Transport: {}", PooledTransport.shared().metrics());
+    }
+    ReqResStandIn.stopShared();
+  }
 }
 
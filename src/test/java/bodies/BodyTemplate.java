@@ -0,0 +1,276 @@
+package bodies;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A JSON request body encoded to UTF-8 once, with ${name} slots for the per-request fields.
+ *
+ * Slots sit inside JSON strings, e.g. {"email":"user${id}@reqres.in"}, and a value is
+ * JSON-escaped as it is spliced in, so rendering never goes through a String or a mapper.
+ * render() splices into a per-thread scratch buffer and copies out an array of exactly the body's
+ * size; renderInto() writes into a caller's reusable buffer and allocates nothing.
+ * A slot name used twice takes the same value in both places.
+ * Instances are immutable and shared by RestAssured tests and Gatling simulations.
+ */
+public final class BodyTemplate {
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[512]);
+
+    /**
+     * ASCII chars that are copied as they are, all others go through escape(value, from, out, at)
+     */
+    private static final boolean[] PLAIN = new boolean[0x80];
+
+    static {
+        for (char c = 0x20; c < 0x7F; c++) {
+            PLAIN[c] = c != '"' && c != '\\';
+        }
+    }
+
+    private final String source;
+    private final byte[][] literals;
+    private final int[] slotAt;
+    private final String[] names;
+    private final int literalLength;
+
+    private BodyTemplate(String source, byte[][] literals, int[] slotAt, String[] names) {
+        this.source = source;
+        this.literals = literals;
+        this.slotAt = slotAt;
+        this.names = names;
+        int length = 0;
+        for (byte[] literal : literals) {
+            length += literal.length;
+        }
+        this.literalLength = length;
+    }
+
+    public static BodyTemplate compile(String json) {
+        List<byte[]> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Integer> slotAt = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = json.indexOf("${", from)) >= 0) {
+            int close = json.indexOf('}', open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unterminated slot at " + open + " in " + json);
+            }
+            String name = json.substring(open + 2, close);
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty slot name at " + open + " in " + json);
+            }
+            literals.add(json.substring(from, open).getBytes(StandardCharsets.UTF_8));
+            int index = names.indexOf(name);
+            if (index < 0) {
+                index = names.size();
+                names.add(name);
+            }
+            slotAt.add(index);
+            from = close + 1;
+        }
+        literals.add(json.substring(from).getBytes(StandardCharsets.UTF_8));
+        return new BodyTemplate(json, literals.toArray(new byte[0][]),
+            slotAt.stream().mapToInt(Integer::intValue).toArray(), names.toArray(new String[0]));
+    }
+
+    /**
+     * Slot names, in the order render() takes their values
+     */
+    public List<String> slots() {
+        return List.of(names);
+    }
+
+    /**
+     * Encoded size of the body with these values
+     */
+    public int length(CharSequence... values) {
+        checkArity(values);
+        int length = literalLength;
+        for (int slot : slotAt) {
+            length += escapedLength(values[slot]);
+        }
+        return length;
+    }
+
+    /**
+     * The body with these values, in an array of exactly its size
+     */
+    public byte[] render(CharSequence... values) {
+        long max = maxLength(values);
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < max) {
+            scratch = new byte[(int) Math.max(max, 2L * scratch.length)];
+            SCRATCH.set(scratch);
+        }
+        return Arrays.copyOf(scratch, write(scratch, 0, values));
+    }
+
+    /**
+     * Writes the body into buffer from offset and returns the offset after it.
+     * The buffer is left untouched when the body does not fit.
+     */
+    public int renderInto(byte[] buffer, int offset, CharSequence... values) {
+        int room = buffer.length - offset;
+        if (maxLength(values) > room) {
+            int length = length(values);
+            if (length > room) {
+                throw new IndexOutOfBoundsException("Body of " + length + " bytes does not fit in "
+                    + room + " bytes at offset " + offset);
+            }
+        }
+        return write(buffer, offset, values);
+    }
+
+    /**
+     * Upper bound of length(values) that does not look at the chars: a control char takes 6 bytes escaped
+     */
+    private long maxLength(CharSequence[] values) {
+        checkArity(values);
+        long length = literalLength;
+        for (int slot : slotAt) {
+            length += 6L * values[slot].length();
+        }
+        return length;
+    }
+
+    private int write(byte[] buffer, int offset, CharSequence[] values) {
+        int at = offset;
+        for (int i = 0; i < slotAt.length; i++) {
+            byte[] literal = literals[i];
+            System.arraycopy(literal, 0, buffer, at, literal.length);
+            at = escape(values[slotAt[i]], buffer, at + literal.length);
+        }
+        byte[] last = literals[slotAt.length];
+        System.arraycopy(last, 0, buffer, at, last.length);
+        return at + last.length;
+    }
+
+    private void checkArity(CharSequence[] values) {
+        if (values.length != names.length) {
+            throw new IllegalArgumentException("Expected values for " + Arrays.toString(names)
+                + " but got " + values.length);
+        }
+    }
+
+    private static int escapedLength(CharSequence value) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || !PLAIN[c]) {
+                return i + escapedLength(value, i);
+            }
+        }
+        return value.length();
+    }
+
+    private static int escapedLength(CharSequence value, int from) {
+        int length = 0;
+        for (int i = from, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c == '\b' || c == '\f' || c == '\n' || c == '\r' || c == '\t') {
+                length += 2;
+            } else if (c < 0x20) {
+                length += 6;
+            } else if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                // Unpaired surrogates are written as '?', like String.getBytes does
+                length += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return length;
+    }
+
+    private static int escape(CharSequence value, byte[] out, int at) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || !PLAIN[c]) {
+                return escape(value, i, out, at);
+            }
+            out[at++] = (byte) c;
+        }
+        return at;
+    }
+
+    private static int escape(CharSequence value, int from, byte[] out, int at) {
+        for (int i = from, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                at = escapeAscii(c, out, at);
+            } else if (c < 0x800) {
+                out[at++] = (byte) (0xC0 | c >> 6);
+                out[at++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                out[at++] = (byte) (0xF0 | cp >> 18);
+                out[at++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                out[at++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                out[at++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                out[at++] = '?';
+            } else {
+                out[at++] = (byte) (0xE0 | c >> 12);
+                out[at++] = (byte) (0x80 | c >> 6 & 0x3F);
+                out[at++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return at;
+    }
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static int escapeAscii(char c, byte[] out, int at) {
+        switch (c) {
+            case '"':
+            case '\\':
+                out[at++] = '\\';
+                out[at++] = (byte) c;
+                return at;
+            case '\b':
+                out[at++] = '\\';
+                out[at++] = 'b';
+                return at;
+            case '\f':
+                out[at++] = '\\';
+                out[at++] = 'f';
+                return at;
+            case '\n':
+                out[at++] = '\\';
+                out[at++] = 'n';
+                return at;
+            case '\r':
+                out[at++] = '\\';
+                out[at++] = 'r';
+                return at;
+            case '\t':
+                out[at++] = '\\';
+                out[at++] = 't';
+                return at;
+            default:
+                if (c < 0x20) {
+                    out[at++] = '\\';
+                    out[at++] = 'u';
+                    out[at++] = '0';
+                    out[at++] = '0';
+                    out[at++] = HEX[c >> 4];
+                    out[at++] = HEX[c & 0xF];
+                } else {
+                    out[at++] = (byte) c;
+                }
+                return at;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,27 @@
+package bodies;
+
+/**
+ * Request bodies of the user write endpoints, shared by ApiTest and the simulations
+ */
+public final class UserBodies {
+
+    /**
+     * PUT /users/{id}: email, first_name, last_name
+     */
+    public static final BodyTemplate USER = BodyTemplate.compile(
+        "{\"email\":\"${email}\",\"first_name\":\"${first_name}\",\"last_name\":\"${last_name}\"}");
+
+    /**
+     * POST /users and PUT /users/{id}: first_name, last_name
+     */
+    public static final BodyTemplate NAME = BodyTemplate.compile(
+        "{\"first_name\":\"${first_name}\",\"last_name\":\"${last_name}\"}");
+
+    /**
+     * PATCH /users/{id}: first_name
+     */
+    public static final BodyTemplate FIRST_NAME = BodyTemplate.compile(
+        "{\"first_name\":\"${first_name}\"}");
+
+    private UserBodies() {}
+}
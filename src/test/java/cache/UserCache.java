@@ -0,0 +1,292 @@
+package cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.RequestSpecs;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import models.SingleUserResponse;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Bounded client-side cache of GET /users/{id} responses.
+ *
+ * Entries are served without a request until their TTL expires. An expired entry is revalidated
+ * with If-None-Match; a 304 renews it without transferring or deserializing the body again.
+ * Capacity is split over segments, each an access-ordered LinkedHashMap behind its own lock that
+ * evicts its least recently used entry when full, so threads reading different IDs rarely contend.
+ *
+ * Cached responses are shared between callers and must not be modified. Writes should go through
+ * write(id, request), which invalidates the entry once the request has completed. Invalidation
+ * also bumps the ID's generation, and a GET stores its response only if the generation is still
+ * the one it saw before fetching, so a read that overlapped a write cannot put the old user back.
+ *
+ * Defaults come from -Dapi.cache.maxEntries (10000) and -Dapi.cache.ttlMillis (30000).
+ */
+public final class UserCache {
+
+    private static final int SEGMENTS = 16;
+    // Generations are striped so memory stays bounded; a colliding ID's write only costs a skipped store
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Origin origin;
+    private final long ttlNanos;
+    private final Segment[] segments;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder bytesFetched = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public UserCache(Origin origin) {
+        this(origin, Integer.getInteger("api.cache.maxEntries", 10_000), Long.getLong("api.cache.ttlMillis", 30_000L));
+    }
+
+    public UserCache(Origin origin, int maxEntries, long ttlMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache needs room for at least one entry");
+        }
+        this.origin = origin;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        int segmentCount = Math.min(SEGMENTS, maxEntries);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maxEntries / segmentCount + (i < maxEntries % segmentCount ? 1 : 0);
+            segments[i] = new Segment(capacity, evictions);
+        }
+    }
+
+    /**
+     * Cache in front of the configured target, fetching through the per-thread RestAssured spec
+     */
+    public static UserCache restAssured() {
+        return new UserCache(restAssuredOrigin());
+    }
+
+    /**
+     * Origin for the configured target, for caches with explicit size and TTL
+     */
+    public static Origin restAssuredOrigin() {
+        return UserCache::restAssuredFetch;
+    }
+
+    /**
+     * The user response, or null when the user does not exist
+     */
+    public SingleUserResponse get(int id) throws IOException {
+        Segment segment = segmentFor(id);
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(id);
+        }
+        long now = System.nanoTime();
+        if (entry != null && now - entry.fetchedNanos < ttlNanos) {
+            hits.increment();
+            bytesSaved.add(entry.size);
+            return entry.response;
+        }
+
+        long generation = generations.get(stripe(id));
+        Fetch fetch = origin.fetch(id, entry == null ? null : entry.etag);
+        if (fetch.status == 304 && entry != null) {
+            revalidated.increment();
+            bytesSaved.add(entry.size);
+            store(segment, id, generation, new Entry(entry.response, entry.etag, entry.size, now));
+            return entry.response;
+        }
+        misses.increment();
+        if (fetch.status == 404) {
+            remove(segment, id);
+            return null;
+        }
+        if (fetch.status != 200) {
+            throw new IOException("GET /users/" + id + " returned " + fetch.status);
+        }
+        bytesFetched.add(fetch.body.length);
+        SingleUserResponse response = mapper.readValue(fetch.body, SingleUserResponse.class);
+        store(segment, id, generation, new Entry(response, fetch.etag, fetch.body.length, now));
+        return response;
+    }
+
+    /**
+     * Runs a PUT, PATCH or DELETE of the user and invalidates its entry afterwards
+     */
+    public <T> T write(int id, Supplier<T> request) {
+        try {
+            return request.get();
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    public void invalidate(int id) {
+        Segment segment = segmentFor(id);
+        boolean removed;
+        synchronized (segment) {
+            generations.incrementAndGet(stripe(id));
+            removed = segment.remove(id) != null;
+        }
+        if (removed) {
+            invalidations.increment();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(int id) {
+        // Spread consecutive IDs over the segments
+        return segments[((id * 0x9E3779B9) >>> 16) % segments.length];
+    }
+
+    private static int stripe(int id) {
+        return (id * 0x9E3779B9) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * Puts the entry unless the ID was invalidated since generation was read
+     */
+    private void store(Segment segment, int id, long generation, Entry entry) {
+        synchronized (segment) {
+            if (generations.get(stripe(id)) == generation) {
+                segment.put(id, entry);
+            }
+        }
+    }
+
+    private static boolean remove(Segment segment, int id) {
+        synchronized (segment) {
+            return segment.remove(id) != null;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), revalidated.sum(), misses.sum(), evictions.sum(), invalidations.sum(),
+            bytesFetched.sum(), bytesSaved.sum());
+    }
+
+    private static Fetch restAssuredFetch(int id, String etag) {
+        RequestSpecification request = given().spec(RequestSpecs.base()).pathParam("userId", id);
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        Response response = request.get("/users/{userId}");
+        return new Fetch(response.statusCode(), response.header("ETag"), response.asByteArray());
+    }
+
+    /**
+     * Performs GET /users/{id}, conditional when etag is not null
+     */
+    @FunctionalInterface
+    public interface Origin {
+        Fetch fetch(int id, String etag) throws IOException;
+    }
+
+    /**
+     * Status, ETag and raw body of one origin response
+     */
+    public static final class Fetch {
+        final int status;
+        final String etag;
+        final byte[] body;
+
+        public Fetch(int status, String etag, byte[] body) {
+            this.status = status;
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+
+    private static final class Entry {
+        final SingleUserResponse response;
+        final String etag;
+        final int size;
+        final long fetchedNanos;
+
+        Entry(SingleUserResponse response, String etag, int size, long fetchedNanos) {
+            this.response = response;
+            this.etag = etag;
+            this.size = size;
+            this.fetchedNanos = fetchedNanos;
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<Integer, Entry> {
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Point-in-time cache counters
+     */
+    public static final class Stats {
+        public final long hits;
+        public final long revalidated;
+        public final long misses;
+        public final long evictions;
+        public final long invalidations;
+        public final long bytesFetched;
+        public final long bytesSaved;
+
+        Stats(long hits, long revalidated, long misses, long evictions, long invalidations,
+              long bytesFetched, long bytesSaved) {
+            this.hits = hits;
+            this.revalidated = revalidated;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.bytesFetched = bytesFetched;
+            this.bytesSaved = bytesSaved;
+        }
+
+        /**
+         * Share of lookups answered from the cache, with or without revalidation
+         */
+        public double hitRatio() {
+            long lookups = hits + revalidated + misses;
+            return lookups == 0 ? 0 : (double) (hits + revalidated) / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "hits=%d revalidated=%d misses=%d hitRatio=%.1f%% evictions=%d invalidations=%d fetched=%dB saved=%dB",
+                hits, revalidated, misses, hitRatio() * 100, evictions, invalidations, bytesFetched, bytesSaved);
+        }
+    }
+}
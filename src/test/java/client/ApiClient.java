@@ -0,0 +1,61 @@
+package client;
+
+import config.TestConfig;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Minimal request execution for tests that only need status, headers and a mapped body, such as
+ * the data-provider tests that fan out over many IDs.
+ *
+ * Two backends: RestAssured through the shared RequestSpecs (the default), and the JDK's
+ * java.net.http client with -Dapi.client=jdk. Paths are templates relative to the API path,
+ * e.g. "/users/{id}", whose placeholders are filled from params in order and percent-encoded.
+ */
+public interface ApiClient {
+
+    /**
+     * Sends the request; body may be null. The future fails only when no response arrived.
+     */
+    CompletableFuture<ApiResponse> sendAsync(String method, String pathTemplate, byte[] body, Object... params);
+
+    /**
+     * Short name of the backend, as selected with -Dapi.client
+     */
+    String name();
+
+    default ApiResponse send(String method, String pathTemplate, byte[] body, Object... params) {
+        try {
+            return sendAsync(method, pathTemplate, body, params).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    default ApiResponse get(String pathTemplate, Object... params) {
+        return send("GET", pathTemplate, null, params);
+    }
+
+    /**
+     * The backend selected for this run with -Dapi.client (restassured or jdk)
+     */
+    static ApiClient forRun() {
+        return of(TestConfig.CLIENT);
+    }
+
+    static ApiClient of(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "restassured":
+                return RestAssuredApiClient.INSTANCE;
+            case "jdk":
+                return JdkApiClient.shared();
+            default:
+                throw new IllegalArgumentException("Unknown api.client: " + name + " (expected restassured or jdk)");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package client;
+
+/**
+ * Response of an ApiClient call, with the body already read
+ */
+public interface ApiResponse {
+
+    int statusCode();
+
+    /**
+     * Content-Type header, or null when absent
+     */
+    String contentType();
+
+    /**
+     * Time from sending the request until the body had arrived
+     */
+    long timeMillis();
+
+    byte[] body();
+
+    /**
+     * The JSON body mapped into a model class
+     */
+    <T> T as(Class<T> type);
+}
@@ -0,0 +1,237 @@
+package client;
+
+import config.TestConfig;
+import models.SingleUserResponse;
+import server.ReqResStandIn;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the ApiClient backends on GET /users/{id} mapped into SingleUserResponse, the call the
+ * data-provider tests make.
+ *
+ * Startup: -Dcomparison.startupRuns (3) fresh JVMs per backend, each timing its first mapped
+ * response from JVM start and from main(). Steady state, in this JVM: -Dcomparison.threads (4)
+ * threads share -Dcomparison.requests (20000) calls after -Dcomparison.warmupRequests (5000),
+ * and every thread's allocated bytes and the process CPU time are sampled around them. Against
+ * the stand-in, its threads are left out of both.
+ *
+ * mvn test-compile exec:java -Dexec.mainClass=client.BackendComparison -Dexec.classpathScope=test -Dapi.target=local
+ */
+public class BackendComparison {
+
+    private static final String FIRST_RESPONSE = "--first-response";
+    private static final String STARTUP_MARKER = "startup-ms";
+    private static final List<String> BACKENDS = List.of("restassured", "jdk");
+
+    private final int startupRuns = Integer.getInteger("comparison.startupRuns", 3);
+    private final int threads = Integer.getInteger("comparison.threads", 4);
+    private final int requests = Integer.getInteger("comparison.requests", 20_000);
+    private final int warmupRequests = Integer.getInteger("comparison.warmupRequests", 5_000);
+
+    void run() throws Exception {
+        System.out.printf(Locale.ROOT, "Backend comparison: %d startup runs, %d requests (%d warm-up) on %d threads against %s%n",
+            startupRuns, requests, warmupRequests, threads, TestConfig.BASE_URL);
+        List<String> lines = new ArrayList<>();
+        for (String backend : BACKENDS) {
+            long[] fromJvm = new long[startupRuns];
+            long[] fromMain = new long[startupRuns];
+            for (int i = 0; i < startupRuns; i++) {
+                long[] run = startup(backend);
+                fromJvm[i] = run[0];
+                fromMain[i] = run[1];
+            }
+            lines.add(String.format(Locale.ROOT, "%-12s startup: first response %d ms after JVM start, %d ms after main() (median of %d)",
+                backend, median(fromJvm), median(fromMain), startupRuns));
+        }
+        for (String backend : BACKENDS) {
+            ApiClient client = ApiClient.of(backend);
+            steadyState(client, warmupRequests);
+            lines.add(steadyState(client, requests).toString());
+        }
+        lines.forEach(System.out::println);
+    }
+
+    /**
+     * Milliseconds from JVM start and from main() to the first mapped response, in a fresh JVM
+     */
+    private long[] startup(String backend) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(classPath());
+        System.getProperties().stringPropertyNames().stream()
+            .filter(name -> name.startsWith("api."))
+            .forEach(name -> command.add("-D" + name + "=" + System.getProperty(name)));
+        command.add(BackendComparison.class.getName());
+        command.add(FIRST_RESPONSE);
+        command.add(backend);
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long[] result = null;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith(STARTUP_MARKER)) {
+                    String[] fields = line.split(" ");
+                    result = new long[] {Long.parseLong(fields[1]), Long.parseLong(fields[2])};
+                }
+            }
+        }
+        if (!process.waitFor(2, TimeUnit.MINUTES) || process.exitValue() != 0 || result == null) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Startup run of " + backend + " failed: " + String.join(" ", command));
+        }
+        return result;
+    }
+
+    /**
+     * exec:java runs main() in a URLClassLoader; a plain java launch has the class path in java.class.path
+     */
+    private static String classPath() {
+        ClassLoader loader = BackendComparison.class.getClassLoader();
+        if (loader instanceof URLClassLoader) {
+            return Arrays.stream(((URLClassLoader) loader).getURLs())
+                .map(url -> {
+                    try {
+                        return new File(url.toURI()).getPath();
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Cannot use class path entry " + url, e);
+                    }
+                })
+                .collect(Collectors.joining(File.pathSeparator));
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    private SteadyState steadyState(ApiClient client, int count) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "backend-comparison");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            AtomicInteger next = new AtomicInteger();
+            // Start the threads first, so their creation is not part of the measurement
+            pool.invokeAll(Collections.nCopies(threads, () -> null));
+            long bytesBefore = allocatedBytes();
+            long cpuBefore = cpuNanos();
+            long start = System.nanoTime();
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    int failures = 0;
+                    for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                        ApiResponse response = client.get("/users/{userId}", i % 12 + 1);
+                        if (response.statusCode() != 200 || response.as(SingleUserResponse.class).getData() == null) {
+                            failures++;
+                        }
+                    }
+                    return failures;
+                }));
+            }
+            int failures = 0;
+            for (Future<Integer> worker : workers) {
+                failures += worker.get();
+            }
+            long nanos = System.nanoTime() - start;
+            return new SteadyState(client.name(), count, failures, nanos, cpuNanos() - cpuBefore, allocatedBytes() - bytesBefore);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Bytes allocated so far by the live threads of this JVM, except the stand-in's
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = mx.getAllThreadIds();
+        long[] bytes = mx.getThreadAllocatedBytes(ids);
+        ThreadInfo[] infos = mx.getThreadInfo(ids);
+        long total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (infos[i] != null && !infos[i].getThreadName().startsWith("stand-in-") && bytes[i] > 0) {
+                total += bytes[i];
+            }
+        }
+        return total;
+    }
+
+    private static long cpuNanos() {
+        long process = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+            .getProcessCpuTime();
+        return process - ReqResStandIn.cpuNanos();
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    static final class SteadyState {
+        final String backend;
+        final int requests;
+        final int failures;
+        final long nanos;
+        final long cpuNanos;
+        final long allocatedBytes;
+
+        SteadyState(String backend, int requests, int failures, long nanos, long cpuNanos, long allocatedBytes) {
+            this.backend = backend;
+            this.requests = requests;
+            this.failures = failures;
+            this.nanos = nanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "%-12s steady state: %.0f req/s, %.1f KB allocated/req, %.0f us CPU/req, failures=%d",
+                backend, requests * 1e9 / nanos, allocatedBytes / 1024.0 / requests, cpuNanos / 1e3 / requests, failures);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && FIRST_RESPONSE.equals(args[0])) {
+            long mainAt = System.nanoTime();
+            ApiResponse response = ApiClient.of(args[1]).get("/users/{userId}", TestConfig.VALID_USER_ID);
+            if (response.statusCode() != 200 || response.as(SingleUserResponse.class).getData() == null) {
+                throw new IllegalStateException("First request returned " + response.statusCode());
+            }
+            long fromMain = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mainAt);
+            System.out.println(STARTUP_MARKER + " " + ManagementFactory.getRuntimeMXBean().getUptime() + " " + fromMain);
+            System.exit(0);
+        }
+        ReqResStandIn standIn = TestConfig.LOCAL_TARGET ? new ReqResStandIn(TestConfig.LOCAL_PORT).start() : null;
+        try {
+            new BackendComparison().run();
+        } finally {
+            if (standIn != null) {
+                standIn.close();
+            }
+        }
+    }
+}
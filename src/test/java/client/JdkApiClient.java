@@ -0,0 +1,156 @@
+package client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.TestConfig;
+import tracing.TracedBodyHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApiClient on the JDK's java.net.http client: one HttpClient, and so one connection pool, for
+ * the whole run, asynchronous sends and bodies mapped into the models with a shared Jackson
+ * ObjectMapper, without RestAssured's Groovy and HttpClient layers.
+ *
+ * Speaks HTTP/1.1, or h2c/h2 with -Dapi.http2=true. Calls are traced like TracedBodyHandler traces
+ * them elsewhere; they are not captured by ExchangeCapture.
+ */
+public final class JdkApiClient implements ApiClient {
+
+    private static volatile JdkApiClient shared;
+
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUri;
+
+    JdkApiClient(HttpClient client, String baseUri) {
+        this.client = client;
+        this.baseUri = baseUri;
+    }
+
+    public static JdkApiClient shared() {
+        JdkApiClient jdk = shared;
+        if (jdk == null) {
+            synchronized (JdkApiClient.class) {
+                jdk = shared;
+                if (jdk == null) {
+                    jdk = new JdkApiClient(HttpClient.newBuilder()
+                            .version(TestConfig.HTTP2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                            .connectTimeout(Duration.ofMillis(TestConfig.DEFAULT_TIMEOUT_MS))
+                            .build(),
+                        TestConfig.BASE_URL + TestConfig.API_PATH);
+                    shared = jdk;
+                }
+            }
+        }
+        return jdk;
+    }
+
+    @Override
+    public CompletableFuture<ApiResponse> sendAsync(String method, String pathTemplate, byte[] body, Object... params) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUri + expand(pathTemplate, params)))
+            .header("Accept", TestConfig.CONTENT_TYPE_JSON)
+            .header(TestConfig.API_KEY_HEADER, TestConfig.API_KEY)
+            .timeout(Duration.ofMillis(TestConfig.DEFAULT_TIMEOUT_MS));
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", TestConfig.CONTENT_TYPE_JSON)
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body));
+        }
+        long sentAt = System.nanoTime();
+        return client.sendAsync(request.build(),
+                TracedBodyHandler.of(method, pathTemplate, HttpResponse.BodyHandlers.ofByteArray()))
+            .thenApply(response -> new Result(response, System.nanoTime() - sentAt, mapper));
+    }
+
+    @Override
+    public String name() {
+        return "jdk";
+    }
+
+    /**
+     * Fills the {name} placeholders of the template with params in order, each percent-encoded
+     * as a path segment
+     */
+    static String expand(String template, Object... params) {
+        StringBuilder path = new StringBuilder(template.length() + 16);
+        int from = 0;
+        for (Object param : params) {
+            int open = template.indexOf('{', from);
+            int close = open < 0 ? -1 : template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("More params than placeholders in " + template);
+            }
+            path.append(template, from, open);
+            encodeSegment(String.valueOf(param), path);
+            from = close + 1;
+        }
+        if (template.indexOf('{', from) >= 0) {
+            throw new IllegalArgumentException("Missing params for " + template);
+        }
+        return path.append(template, from, template.length()).toString();
+    }
+
+    private static void encodeSegment(String value, StringBuilder out) {
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                || c == '-' || c == '.' || c == '_' || c == '~') {
+                out.append((char) c);
+            } else {
+                out.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                    .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+    }
+
+    private static final class Result implements ApiResponse {
+        private final HttpResponse<byte[]> response;
+        private final long nanos;
+        private final ObjectMapper mapper;
+
+        Result(HttpResponse<byte[]> response, long nanos, ObjectMapper mapper) {
+            this.response = response;
+            this.nanos = nanos;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public int statusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String contentType() {
+            return response.headers().firstValue("Content-Type").orElse(null);
+        }
+
+        @Override
+        public long timeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        @Override
+        public byte[] body() {
+            return response.body();
+        }
+
+        @Override
+        public <T> T as(Class<T> type) {
+            try {
+                return mapper.readValue(response.body(), type);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map " + response.uri() + " into " + type.getSimpleName(), e);
+            }
+        }
+    }
+}
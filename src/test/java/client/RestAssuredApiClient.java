@@ -0,0 +1,72 @@
+package client;
+
+import config.RequestSpecs;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.concurrent.CompletableFuture;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * ApiClient on RestAssured with the per-thread RequestSpecs, so it shares the pooled transport,
+ * exchange capture and tracing filters of the other tests. RestAssured blocks, so sendAsync
+ * completes on the calling thread.
+ */
+final class RestAssuredApiClient implements ApiClient {
+
+    static final RestAssuredApiClient INSTANCE = new RestAssuredApiClient();
+
+    private RestAssuredApiClient() {}
+
+    @Override
+    public CompletableFuture<ApiResponse> sendAsync(String method, String pathTemplate, byte[] body, Object... params) {
+        try {
+            RequestSpecification request = given().spec(RequestSpecs.base());
+            if (body != null) {
+                request.body(body);
+            }
+            return CompletableFuture.completedFuture(new Result(request.request(method, pathTemplate, params)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "restassured";
+    }
+
+    private static final class Result implements ApiResponse {
+        private final Response response;
+
+        Result(Response response) {
+            this.response = response;
+        }
+
+        @Override
+        public int statusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String contentType() {
+            return response.header("Content-Type");
+        }
+
+        @Override
+        public long timeMillis() {
+            return response.time();
+        }
+
+        @Override
+        public byte[] body() {
+            return response.asByteArray();
+        }
+
+        @Override
+        public <T> T as(Class<T> type) {
+            return response.as(type);
+        }
+    }
+}
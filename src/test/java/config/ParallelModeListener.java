@@ -0,0 +1,50 @@
+package config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Applies the parallel execution mode selected on the command line to every suite.
+ *
+ * -Dtests.parallel=methods|classes|tests|none (default none)
+ * -Dtests.threads=N (default: available processors)
+ * -Dtests.dataProviderThreads=N (default: tests.threads)
+ *
+ * Data providers in ApiTest are declared parallel; in serial mode their pool is pinned
+ * to one thread so rows still run one after another.
+ */
+public class ParallelModeListener implements IAlterSuiteListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelModeListener.class);
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        XmlSuite.ParallelMode mode = parseMode(System.getProperty("tests.parallel", "none"));
+        int threads = Integer.getInteger("tests.threads", Runtime.getRuntime().availableProcessors());
+        int dataProviderThreads = Integer.getInteger("tests.dataProviderThreads", threads);
+        boolean parallel = mode != XmlSuite.ParallelMode.NONE;
+
+        for (XmlSuite suite : suites) {
+            suite.setParallel(mode);
+            suite.setThreadCount(parallel ? threads : 1);
+            suite.setDataProviderThreadCount(parallel ? dataProviderThreads : 1);
+            for (XmlTest test : suite.getTests()) {
+                test.setParallel(mode);
+                test.setThreadCount(parallel ? threads : 1);
+            }
+            LOG.info("Suite '{}' parallel={} threads={} dataProviderThreads={}",
+                suite.getName(), mode, suite.getThreadCount(), suite.getDataProviderThreadCount());
+        }
+    }
+
+    static XmlSuite.ParallelMode parseMode(String value) {
+        XmlSuite.ParallelMode mode = XmlSuite.ParallelMode.getValidParallel(value.trim().toLowerCase(Locale.ROOT));
+        return mode == null ? XmlSuite.ParallelMode.NONE : mode;
+    }
+}
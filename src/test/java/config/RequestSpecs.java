@@ -0,0 +1,59 @@
+package config;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.ObjectMapperConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.log.LogDetail;
+import io.restassured.filter.log.RequestLoggingFilter;
+import io.restassured.filter.log.ResponseLoggingFilter;
+import io.restassured.specification.RequestSpecification;
+import logging.ExchangeCapture;
+import tracing.TracingFilter;
+import tracing.TracingObjectMapper;
+import transport.PooledTransport;
+
+import static config.TestConfig.*;
+
+/**
+ * Per-thread RestAssured request specifications.
+ * Base URI and path live on the spec instead of the static RestAssured globals,
+ * so tests can run concurrently without sharing mutable state.
+ */
+public final class RequestSpecs {
+
+    private static final ThreadLocal<RequestSpecification> BASE = ThreadLocal.withInitial(RequestSpecs::newBaseSpec);
+
+    private RequestSpecs() {}
+
+    /**
+     * Base specification for the current thread: target URL, JSON headers and API key
+     */
+    public static RequestSpecification base() {
+        return BASE.get();
+    }
+
+    static RequestSpecification newBaseSpec() {
+        RequestSpecBuilder builder = new RequestSpecBuilder()
+            .setBaseUri(BASE_URL)
+            .setBasePath(API_PATH)
+            .setContentType(CONTENT_TYPE_JSON)
+            .setAccept(CONTENT_TYPE_JSON)
+            .addHeader(API_KEY_HEADER, API_KEY);
+        RestAssuredConfig config = RestAssuredConfig.config()
+            .objectMapperConfig(ObjectMapperConfig.objectMapperConfig().defaultObjectMapper(TracingObjectMapper.INSTANCE));
+        if (POOLED_TRANSPORT) {
+            config = config.httpClient(PooledTransport.shared().httpClientConfig());
+            builder.addFilter(PooledTransport.shared().releaseFilter());
+        }
+        builder.setConfig(config);
+        if (LOG_ALWAYS) {
+            builder.addFilter(new RequestLoggingFilter(LogDetail.ALL))
+                .addFilter(new ResponseLoggingFilter(LogDetail.ALL));
+        } else {
+            builder.addFilter(ExchangeCapture.INSTANCE);
+        }
+        // JFR events while a recording runs; last, so it times the exchange rather than the other filters
+        builder.addFilter(TracingFilter.INSTANCE);
+        return builder.build();
+    }
+}
@@ -4,9 +4,27 @@ package config;
  * Configuration class for API test settings
  */
 public class TestConfig {
-    public static final String BASE_URL = "https://reqres.in";
+    // Target selection: -Dapi.target=local runs against the embedded stand-in server
+    public static final boolean LOCAL_TARGET = "local".equalsIgnoreCase(System.getProperty("api.target", "remote"));
+    public static final String LOCAL_HOST = System.getProperty("api.local.host", "localhost");
+    public static final int LOCAL_PORT = Integer.getInteger("api.local.port", 8089);
+
+    public static final String BASE_URL = System.getProperty("api.baseUrl",
+            LOCAL_TARGET ? "http://" + LOCAL_HOST + ":" + LOCAL_PORT : "https://reqres.in");
     public static final String API_PATH = "/api";
 
+    // Logging: exchanges are buffered and logged only for failed tests unless -Dapi.log=always
+    public static final boolean LOG_ALWAYS = "always".equalsIgnoreCase(System.getProperty("api.log", "onFailure"));
+
+    // Transport: shared keep-alive connection pool unless -Dapi.pool=false
+    public static final boolean POOLED_TRANSPORT = Boolean.parseBoolean(System.getProperty("api.pool", "true"));
+
+    // Client for the data-provider tests: RestAssured, or java.net.http with -Dapi.client=jdk
+    public static final String CLIENT = System.getProperty("api.client", "restassured");
+
+    // HTTP/2 instead of HTTP/1.1 for the Gatling protocol and the jdk client with -Dapi.http2=true
+    public static final boolean HTTP2 = Boolean.parseBoolean(System.getProperty("api.http2", "false"));
+
     // Timeouts
     public static final int DEFAULT_TIMEOUT_MS = 10000;
 
@@ -16,4 +34,6 @@ public class TestConfig {
 
     // Headers
     public static final String CONTENT_TYPE_JSON = "application/json";
+    public static final String API_KEY_HEADER = "x-api-key";
+    public static final String API_KEY = "reqres-free-v1";
 }
@@ -0,0 +1,132 @@
+package contract;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Loads and compiles each JSON schema under the classpath "schemas/" directory once
+ * and validates response bodies against the cached instance.
+ *
+ * Bodies are parsed into a tree exactly once per validation. Compiled schemas are
+ * immutable, so a single registry is shared by RestAssured matchers and Gatling checks.
+ */
+public final class SchemaRegistry {
+
+    public static final String SCHEMA_ROOT = "schemas/";
+    public static final String SINGLE_USER = "single-user-schema.json";
+
+    private static final SchemaRegistry DEFAULT = new SchemaRegistry();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
+    private final ConcurrentMap<String, JsonSchema> schemas = new ConcurrentHashMap<>();
+
+    private SchemaRegistry() {}
+
+    public static SchemaRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the compiled schema, loading it from the classpath on first use
+     */
+    public JsonSchema schema(String name) {
+        return schemas.computeIfAbsent(name, this::load);
+    }
+
+    private JsonSchema load(String name) {
+        String resource = name.startsWith(SCHEMA_ROOT) ? name : SCHEMA_ROOT + name;
+        try (InputStream in = SchemaRegistry.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Schema not found on classpath: " + resource);
+            }
+            return factory.getJsonSchema(mapper.readTree(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read schema " + resource, e);
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Invalid schema " + resource + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validates a raw response body; returns the violations, empty when the body conforms
+     */
+    public List<String> validate(String name, byte[] body) {
+        JsonNode instance;
+        try {
+            instance = mapper.readTree(body);
+        } catch (IOException e) {
+            return Collections.singletonList("Body is not valid JSON: " + e.getMessage());
+        }
+        return validate(name, instance);
+    }
+
+    public List<String> validate(String name, String body) {
+        JsonNode instance;
+        try {
+            instance = mapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            return Collections.singletonList("Body is not valid JSON: " + e.getOriginalMessage());
+        }
+        return validate(name, instance);
+    }
+
+    public List<String> validate(String name, JsonNode instance) {
+        if (instance == null || instance.isMissingNode()) {
+            return Collections.singletonList("Body is empty");
+        }
+        ProcessingReport report = schema(name).validateUnchecked(instance);
+        if (report.isSuccess()) {
+            return Collections.emptyList();
+        }
+        List<String> violations = new ArrayList<>();
+        for (ProcessingMessage message : report) {
+            if (message.getLogLevel().compareTo(LogLevel.ERROR) >= 0) {
+                String pointer = message.asJson().path("instance").path("pointer").asText("");
+                violations.add((pointer.isEmpty() ? "/" : pointer) + ": " + message.getMessage());
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Hamcrest matcher for RestAssured's body(...) backed by the cached schema
+     */
+    public static Matcher<String> matchesSchema(String name) {
+        return new TypeSafeMatcher<String>() {
+            @Override
+            protected boolean matchesSafely(String body) {
+                return DEFAULT.validate(name, body).isEmpty();
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a body conforming to JSON schema ").appendValue(name);
+            }
+
+            @Override
+            protected void describeMismatchSafely(String body, Description mismatch) {
+                mismatch.appendText("violations ").appendValueList("[", ", ", "]", DEFAULT.validate(name, body));
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package feeders;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Locates feeder files for the simulations and generates synthetic ones.
+ *
+ * -Dfeeder.userIds=path.csv and -Dfeeder.userBodies=path.jsonl point at real data sets;
+ * without them a small file covering the fixture users is generated under target/feeders.
+ * Large synthetic files can be produced with:
+ * mvn exec:java -Dexec.mainClass=feeders.FeederFiles -Dexec.classpathScope=test -Dexec.args="target/feeders 10000000"
+ */
+public final class FeederFiles {
+
+    private static final Path DEFAULT_DIR = Paths.get("target", "feeders");
+    private static final int FIXTURE_USERS = 12;
+
+    private FeederFiles() {}
+
+    /**
+     * CSV file with a "userId" column
+     */
+    public static Path userIds() {
+        String configured = System.getProperty("feeder.userIds");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        return ensure(DEFAULT_DIR.resolve("user-ids.csv"), file -> writeUserIds(file, FIXTURE_USERS));
+    }
+
+    /**
+     * JSONL file of PUT/PATCH bodies with "userId", "email", "first_name" and "last_name"
+     */
+    public static Path userBodies() {
+        String configured = System.getProperty("feeder.userBodies");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        return ensure(DEFAULT_DIR.resolve("user-bodies.jsonl"), file -> writeUserBodies(file, FIXTURE_USERS));
+    }
+
+    public static void writeUserIds(Path file, long count) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("userId\n");
+            for (long id = 1; id <= count; id++) {
+                out.write(Long.toString(id));
+                out.write('\n');
+            }
+        }
+    }
+
+    public static void writeUserBodies(Path file, long count) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long id = 1; id <= count; id++) {
+                out.write("{\"userId\":" + id
+                    + ",\"email\":\"user" + id + "@reqres.in\""
+                    + ",\"first_name\":\"First" + id + "\""
+                    + ",\"last_name\":\"Last" + id + "\"}\n");
+            }
+        }
+    }
+
+    private interface Writer {
+        void write(Path file) throws IOException;
+    }
+
+    private static synchronized Path ensure(Path file, Writer writer) {
+        if (!Files.exists(file)) {
+            try {
+                writer.write(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot generate feeder file " + file, e);
+            }
+        }
+        return file;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : DEFAULT_DIR.toString());
+        long count = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+        writeUserIds(dir.resolve("user-ids.csv"), count);
+        writeUserBodies(dir.resolve("user-bodies.jsonl"), count);
+        System.out.println("Wrote " + count + " records to " + dir.toAbsolutePath());
+    }
+}
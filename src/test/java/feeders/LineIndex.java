@@ -0,0 +1,84 @@
+package feeders;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Start/end offsets of every non-empty line of a mapped file, kept in a memory-mapped
+ * temporary file rather than on the heap (16 bytes per record).
+ */
+final class LineIndex implements Closeable {
+
+    private final Path file;
+    private final MappedSegments entries;
+    private final long count;
+
+    private LineIndex(Path file, MappedSegments entries, long count) {
+        this.file = file;
+        this.entries = entries;
+        this.count = count;
+    }
+
+    /**
+     * Indexes every non-empty line of data starting at the given offset
+     */
+    static LineIndex build(MappedSegments data, long from) throws IOException {
+        // First pass counts lines so the index file can be sized once
+        long lines = 0;
+        long size = data.size();
+        long start = from;
+        for (long pos = from; pos <= size; pos++) {
+            if (pos == size || data.get(pos) == '\n') {
+                if (trimEnd(data, start, pos) > start) {
+                    lines++;
+                }
+                start = pos + 1;
+            }
+        }
+
+        Path file = Files.createTempFile("feeder-index", ".idx");
+        file.toFile().deleteOnExit();
+        MappedSegments entries = MappedSegments.readWrite(file, Math.max(lines, 1) * 16);
+        long n = 0;
+        start = from;
+        for (long pos = from; pos <= size; pos++) {
+            if (pos == size || data.get(pos) == '\n') {
+                long end = trimEnd(data, start, pos);
+                if (end > start) {
+                    entries.putLong(n * 16, start);
+                    entries.putLong(n * 16 + 8, end);
+                    n++;
+                }
+                start = pos + 1;
+            }
+        }
+        return new LineIndex(file, entries, lines);
+    }
+
+    private static long trimEnd(MappedSegments data, long start, long end) {
+        while (end > start && (data.get(end - 1) == '\r' || data.get(end - 1) == ' ')) {
+            end--;
+        }
+        return end;
+    }
+
+    long count() {
+        return count;
+    }
+
+    long start(long line) {
+        return entries.getLong(line * 16);
+    }
+
+    long end(long line) {
+        return entries.getLong(line * 16 + 8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        entries.close();
+        Files.deleteIfExists(file);
+    }
+}
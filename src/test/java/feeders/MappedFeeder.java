@@ -0,0 +1,239 @@
+package feeders;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gatling feeder that streams records from a memory-mapped CSV or JSONL file.
+ *
+ * Only the current record is ever decoded onto the heap; the data file and its line
+ * index stay in the page cache, so feeders over tens of millions of records keep the
+ * load generator's heap flat. The iterator is lock-free and safe for concurrent use.
+ *
+ * CSV files need a header row; each column becomes a session attribute. Each JSONL line
+ * must be a JSON object; its top-level fields become attributes and the raw line is
+ * exposed as "body" so it can be sent as a request body unchanged.
+ */
+public class MappedFeeder implements Iterator<Map<String, Object>>, Closeable {
+
+    public enum Strategy {
+        /** Records in file order, wrapping around at the end */
+        CIRCULAR,
+        /** Independent uniformly random records */
+        RANDOM,
+        /** Every record once per pass in a pseudo-random order, then a new order */
+        SHUFFLE
+    }
+
+    public static final String BODY = "body";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final MappedSegments data;
+    private final LineIndex index;
+    private final String[] header;
+    private final Strategy strategy;
+    private final AtomicLong cursor = new AtomicLong();
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private volatile Permutation permutation;
+
+    private MappedFeeder(Path file, boolean csv, Strategy strategy) throws IOException {
+        this.data = MappedSegments.readOnly(file);
+        this.strategy = strategy;
+        long firstRecord = 0;
+        if (csv) {
+            long end = 0;
+            while (end < data.size() && data.get(end) != '\n') {
+                end++;
+            }
+            String line = new String(data.bytes(0, end), StandardCharsets.UTF_8).trim();
+            this.header = parseCsv(line).toArray(new String[0]);
+            firstRecord = Math.min(end + 1, data.size());
+        } else {
+            this.header = null;
+        }
+        this.index = LineIndex.build(data, firstRecord);
+        if (index.count() == 0) {
+            throw new IllegalArgumentException("Feeder file has no records: " + file);
+        }
+        this.permutation = new Permutation(index.count(), seed, 0);
+    }
+
+    public static MappedFeeder csv(Path file, Strategy strategy) {
+        return open(file, true, strategy);
+    }
+
+    public static MappedFeeder jsonl(Path file, Strategy strategy) {
+        return open(file, false, strategy);
+    }
+
+    private static MappedFeeder open(Path file, boolean csv, Strategy strategy) {
+        try {
+            return new MappedFeeder(file, csv, strategy);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map feeder file " + file, e);
+        }
+    }
+
+    public long size() {
+        return index.count();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        return record(nextLine());
+    }
+
+    private long nextLine() {
+        long n = index.count();
+        switch (strategy) {
+            case RANDOM:
+                return ThreadLocalRandom.current().nextLong(n);
+            case SHUFFLE:
+                long k = cursor.getAndIncrement();
+                long epoch = k / n;
+                Permutation current = permutation;
+                if (current.epoch != epoch) {
+                    current = new Permutation(n, seed, epoch);
+                    permutation = current;
+                }
+                return current.apply(k % n);
+            default:
+                return cursor.getAndIncrement() % n;
+        }
+    }
+
+    private Map<String, Object> record(long line) {
+        byte[] bytes = data.bytes(index.start(line), index.end(line));
+        if (header == null) {
+            try {
+                Map<String, Object> record = MAPPER.readValue(bytes, MAP_TYPE);
+                record.put(BODY, new String(bytes, StandardCharsets.UTF_8));
+                return record;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Malformed JSONL record at line " + (line + 1), e);
+            }
+        }
+        List<String> values = parseCsv(new String(bytes, StandardCharsets.UTF_8));
+        Map<String, Object> record = new HashMap<>(header.length * 2);
+        for (int i = 0; i < header.length; i++) {
+            record.put(header[i], i < values.size() ? values.get(i) : "");
+        }
+        return record;
+    }
+
+    /**
+     * Splits one CSV line; supports double-quoted fields with "" escapes
+     */
+    static List<String> parseCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        index.close();
+        data.close();
+    }
+
+    /**
+     * Bijection over [0, n) of the form (a * i + c) mod n with gcd(a, n) = 1,
+     * re-seeded for every pass so consecutive passes use different orders
+     */
+    private static final class Permutation {
+        private final long n;
+        private final long a;
+        private final long c;
+        private final long epoch;
+
+        private Permutation(long n, long seed, long epoch) {
+            this.n = n;
+            this.epoch = epoch;
+            long mix = mix(seed + epoch);
+            long candidate = n > 2 ? 2 + Math.floorMod(mix, n - 2) : 1;
+            while (gcd(candidate, n) != 1) {
+                candidate++;
+            }
+            this.a = candidate;
+            this.c = Math.floorMod(mix(mix), n);
+        }
+
+        long apply(long i) {
+            return (mulMod(a, i, n) + c) % n;
+        }
+
+        // Double-and-add once the product could overflow a long
+        private static long mulMod(long x, long y, long m) {
+            if (x < (1L << 31) && y < (1L << 31)) {
+                return (x * y) % m;
+            }
+            long result = 0;
+            x %= m;
+            while (y > 0) {
+                if ((y & 1) == 1) {
+                    result = (result + x) % m;
+                }
+                x = (x << 1) % m;
+                y >>= 1;
+            }
+            return result;
+        }
+
+        private static long gcd(long x, long y) {
+            while (y != 0) {
+                long t = x % y;
+                x = y;
+                y = t;
+            }
+            return x;
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package feeders;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file mapped as a series of MappedByteBuffer segments so files larger than 2GB can be
+ * addressed with long offsets. Pages live in the OS page cache, not on the Java heap.
+ * Reads use absolute positions only, so concurrent readers need no locking.
+ */
+public final class MappedSegments implements Closeable {
+
+    // Multiple of 8 so a long never straddles two segments
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private MappedSegments(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+        this.channel = channel;
+        this.size = size;
+        int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+        this.segments = new MappedByteBuffer[Math.max(count, 1)];
+        for (int i = 0; i < count; i++) {
+            long offset = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(mode, offset, Math.min(SEGMENT_SIZE, size - offset));
+        }
+    }
+
+    public static MappedSegments readOnly(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new MappedSegments(channel, FileChannel.MapMode.READ_ONLY, channel.size());
+    }
+
+    static MappedSegments readWrite(Path file, long size) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new MappedSegments(channel, FileChannel.MapMode.READ_WRITE, size);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public byte get(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+    }
+
+    /**
+     * Reads an int at a 4-byte aligned position
+     */
+    public int getInt(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getInt((int) (position & SEGMENT_MASK));
+    }
+
+    /**
+     * Reads a long at an 8-byte aligned position
+     */
+    public long getLong(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & SEGMENT_MASK));
+    }
+
+    void putLong(long position, long value) {
+        segments[(int) (position >>> SEGMENT_BITS)].putLong((int) (position & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Copies [from, to) into a new array
+     */
+    public byte[] bytes(long from, long to) {
+        byte[] out = new byte[(int) (to - from)];
+        int segment = (int) (from >>> SEGMENT_BITS);
+        int offset = (int) (from & SEGMENT_MASK);
+        if (segment == (int) ((to - 1) >>> SEGMENT_BITS)) {
+            segments[segment].duplicate().position(offset).get(out);
+        } else {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = get(from + i);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
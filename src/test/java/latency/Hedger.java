@@ -0,0 +1,204 @@
+package latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedging policy for idempotent requests: when the first attempt has not answered within the
+ * hedge delay, a second identical attempt is sent and whichever succeeds first wins. A failed
+ * attempt is retried once if nothing else is pending. Hedges and retries both draw on a RetryBudget.
+ *
+ * The delay tracks a percentile (p95 by default) of recently observed attempt latencies, refreshed
+ * about once a second; until minSamples latencies have been seen it does not hedge at all.
+ * Only use it for requests that are safe to send twice, i.e. GETs.
+ *
+ * Defaults come from -Dapi.hedge.percentile (95), -Dapi.hedge.minDelayMillis (1)
+ * and -Dapi.hedge.minSamples (50).
+ */
+public final class Hedger {
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RetryBudget budget;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long minSamples;
+
+    private final Recorder latencies = new Recorder(3);
+    private final Histogram window = new Histogram(3);
+    private volatile long delayNanos = -1;
+    private volatile long refreshedNanos = System.nanoTime();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+
+    public Hedger(RetryBudget budget) {
+        this(budget, Double.parseDouble(System.getProperty("api.hedge.percentile", "95")),
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("api.hedge.minDelayMillis", 1L)),
+            Long.getLong("api.hedge.minSamples", 50L));
+    }
+
+    public Hedger(RetryBudget budget, double percentile, long minDelayNanos, long minSamples) {
+        this.budget = budget;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelayNanos;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Hedger drawing on the global budget
+     */
+    public static Hedger withGlobalBudget() {
+        return new Hedger(RetryBudget.global());
+    }
+
+    /**
+     * Runs a blocking request, e.g. a RestAssured call, with hedging; attempts run on the executor
+     */
+    public <T> T call(Supplier<T> request, Executor executor) {
+        try {
+            return callAsync(() -> CompletableFuture.supplyAsync(request, executor)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the first attempt and, if it is slow or fails, at most one more
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> attempt) {
+        calls.increment();
+        budget.deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Race<T> race = new Race<>(result, attempt);
+        race.start(false);
+        long delay = delayNanos;
+        if (delay >= 0) {
+            ScheduledFuture<?> hedge = TIMER.schedule(() -> {
+                if (!result.isDone() && race.extraAllowed()) {
+                    hedges.increment();
+                    race.start(true);
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+            result.whenComplete((value, error) -> hedge.cancel(false));
+        }
+        return result;
+    }
+
+    private void record(long latencyNanos) {
+        latencies.recordValue(latencyNanos);
+        long now = System.nanoTime();
+        if (now - refreshedNanos >= REFRESH_NANOS) {
+            refresh(now);
+        }
+    }
+
+    private synchronized void refresh(long now) {
+        if (now - refreshedNanos < REFRESH_NANOS) {
+            return;
+        }
+        refreshedNanos = now;
+        window.add(latencies.getIntervalHistogram());
+        if (window.getTotalCount() >= minSamples) {
+            delayNanos = Math.max(minDelayNanos, window.getValueAtPercentile(percentile));
+            window.reset();
+        }
+    }
+
+    /**
+     * Current hedge delay, or -1 while there are too few samples to hedge
+     */
+    public long delayNanos() {
+        return delayNanos;
+    }
+
+    @Override
+    public String toString() {
+        long hedged = hedges.sum();
+        return String.format(Locale.ROOT, "calls=%d hedges=%d (won %d) retries=%d refused=%d delay=%.1fms budget[%s]",
+            calls.sum(), hedged, hedgesWon.sum(), retries.sum(), refused.sum(),
+            delayNanos < 0 ? -1.0 : delayNanos / 1e6, budget);
+    }
+
+    /**
+     * The attempts of one call; the first success completes the result
+     */
+    private final class Race<T> {
+        private final CompletableFuture<T> result;
+        private final Supplier<CompletableFuture<T>> attempt;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger attempts = new AtomicInteger(1);
+
+        Race(CompletableFuture<T> result, Supplier<CompletableFuture<T>> attempt) {
+            this.result = result;
+            this.attempt = attempt;
+        }
+
+        /**
+         * Reserves the one extra attempt a call may make, if the budget allows it
+         */
+        boolean extraAllowed() {
+            if (!attempts.compareAndSet(1, 2)) {
+                return false;
+            }
+            if (!budget.tryWithdraw()) {
+                refused.increment();
+                return false;
+            }
+            return true;
+        }
+
+        void start(boolean hedge) {
+            pending.incrementAndGet();
+            long start = System.nanoTime();
+            CompletableFuture<T> future;
+            try {
+                future = attempt.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((value, error) -> {
+                int stillPending = pending.decrementAndGet();
+                if (error == null) {
+                    record(System.nanoTime() - start);
+                    if (result.complete(value) && hedge) {
+                        hedgesWon.increment();
+                    }
+                } else if (stillPending == 0 && !result.isDone()) {
+                    if (extraAllowed()) {
+                        retries.increment();
+                        start(false);
+                    } else {
+                        result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package latency;
+
+import config.TestConfig;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the latency distribution of a request: warm-up iterations first, then N timed
+ * samples recorded with nanoTime into an HDR histogram.
+ *
+ * With a target rate, requests are scheduled on a fixed timeline and each latency is taken
+ * from the intended start time, so a stalled request also counts the wait it imposed on
+ * the ones queued behind it (coordinated-omission correction). Without a rate, requests
+ * run back to back and only service time is measured.
+ *
+ * Defaults come from -Dapi.latency.warmup, -Dapi.latency.samples and -Dapi.latency.rate:
+ * 10 warm-up calls and 100 samples at 20 req/s against the local stand-in, 2 and 20 at 5 req/s
+ * against a remote target, which rate-limits and should not be loaded by a functional run.
+ */
+public class LatencyHarness {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LatencyHarness.class);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String name;
+    private final Runnable request;
+    private int warmup = Integer.getInteger("api.latency.warmup", TestConfig.LOCAL_TARGET ? 10 : 2);
+    private int samples = Integer.getInteger("api.latency.samples", TestConfig.LOCAL_TARGET ? 100 : 20);
+    private double targetRate = Double.parseDouble(System.getProperty("api.latency.rate", TestConfig.LOCAL_TARGET ? "20" : "5"));
+    private boolean failOnError = true;
+
+    private LatencyHarness(String name, Runnable request) {
+        this.name = name;
+        this.request = request;
+    }
+
+    /**
+     * @param request one complete call including its assertions; an exception counts as an error
+     */
+    public static LatencyHarness of(String name, Runnable request) {
+        return new LatencyHarness(name, request);
+    }
+
+    public LatencyHarness warmup(int iterations) {
+        this.warmup = iterations;
+        return this;
+    }
+
+    public LatencyHarness samples(int samples) {
+        if (samples < 1) {
+            throw new IllegalArgumentException("At least one sample is required");
+        }
+        this.samples = samples;
+        return this;
+    }
+
+    /**
+     * Requests per second to schedule; 0 runs requests back to back
+     */
+    public LatencyHarness targetRate(double perSecond) {
+        this.targetRate = perSecond;
+        return this;
+    }
+
+    /**
+     * Whether the first failed request aborts the run (default) or is only counted
+     */
+    public LatencyHarness failOnError(boolean failOnError) {
+        this.failOnError = failOnError;
+        return this;
+    }
+
+    public LatencyReport run() {
+        for (int i = 0; i < warmup; i++) {
+            request.run();
+        }
+
+        Histogram corrected = new Histogram(SIGNIFICANT_DIGITS);
+        Histogram service = new Histogram(SIGNIFICANT_DIGITS);
+        corrected.setAutoResize(true);
+        service.setAutoResize(true);
+
+        long intervalNanos = targetRate > 0 ? (long) (1_000_000_000L / targetRate) : 0;
+        int errors = 0;
+        long timeline = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            long intended = timeline + i * intervalNanos;
+            if (intervalNanos > 0) {
+                waitUntil(intended);
+            }
+            long start = System.nanoTime();
+            try {
+                request.run();
+            } catch (RuntimeException | AssertionError e) {
+                if (failOnError) {
+                    throw e;
+                }
+                errors++;
+            }
+            long end = System.nanoTime();
+            service.recordValue(end - start);
+            corrected.recordValue(end - (intervalNanos > 0 ? intended : start));
+        }
+
+        LatencyReport report = new LatencyReport(name, corrected, service, targetRate, errors);
+        LOG.info("{}", report);
+        return report;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
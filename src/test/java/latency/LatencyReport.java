@@ -0,0 +1,113 @@
+package latency;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Latency percentiles of one harness run. Values are recorded in nanoseconds and
+ * reported in milliseconds. When the run had a target rate, latency is measured from
+ * each request's intended start, which corrects for coordinated omission.
+ */
+public class LatencyReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double[] REPORTED = {50.0, 90.0, 99.0, 99.9};
+
+    private final String name;
+    private final Histogram histogram;
+    private final Histogram uncorrected;
+    private final double targetRate;
+    private final int errors;
+
+    LatencyReport(String name, Histogram histogram, Histogram uncorrected, double targetRate, int errors) {
+        this.name = name;
+        this.histogram = histogram;
+        this.uncorrected = uncorrected;
+        this.targetRate = targetRate;
+        this.errors = errors;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long count() {
+        return histogram.getTotalCount();
+    }
+
+    public int errors() {
+        return errors;
+    }
+
+    /**
+     * Latency at the given percentile in milliseconds (100 gives the max)
+     */
+    public double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    public double maxMillis() {
+        return histogram.getMaxValue() / NANOS_PER_MILLI;
+    }
+
+    public double meanMillis() {
+        return histogram.getMean() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Service time without coordinated-omission correction, for comparison
+     */
+    public double uncorrectedPercentileMillis(double percentile) {
+        return uncorrected.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    public Histogram histogram() {
+        return histogram.copy();
+    }
+
+    /**
+     * Returns the objectives this run breached; empty when all are met
+     */
+    public List<String> breaches(LatencySlo... slos) {
+        List<String> breaches = new ArrayList<>();
+        for (LatencySlo slo : slos) {
+            double actual = slo.getPercentile() == 100.0 ? maxMillis() : percentileMillis(slo.getPercentile());
+            if (actual >= slo.getBound().toNanos() / NANOS_PER_MILLI) {
+                breaches.add(String.format(Locale.ROOT, "%s (actual %.3fms)", slo, actual));
+            }
+        }
+        return breaches;
+    }
+
+    /**
+     * Throws AssertionError naming every breached objective
+     */
+    public void assertMeets(LatencySlo... slos) {
+        List<String> breaches = breaches(slos);
+        if (!breaches.isEmpty()) {
+            throw new AssertionError(name + " breached latency SLO " + breaches + "\n" + this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%s: n=%d errors=%d rate=%s mean=%.3fms",
+            name, count(), errors, targetRate > 0 ? targetRate + "/s" : "unthrottled", meanMillis()));
+        for (double p : REPORTED) {
+            out.append(String.format(Locale.ROOT, " p%s=%.3fms", trim(p), percentileMillis(p)));
+        }
+        out.append(String.format(Locale.ROOT, " max=%.3fms", maxMillis()));
+        if (targetRate > 0) {
+            out.append(String.format(Locale.ROOT, " (uncorrected p99=%.3fms)", uncorrectedPercentileMillis(99.0)));
+        }
+        return out.toString();
+    }
+
+    private static String trim(double p) {
+        return p == Math.rint(p) ? Long.toString((long) p) : Double.toString(p);
+    }
+}
@@ -0,0 +1,49 @@
+package latency;
+
+import java.time.Duration;
+
+/**
+ * A latency objective: the given percentile must stay under a bound
+ */
+public final class LatencySlo {
+
+    private final double percentile;
+    private final Duration bound;
+
+    private LatencySlo(double percentile, Duration bound) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in (0, 100]: " + percentile);
+        }
+        this.percentile = percentile;
+        this.bound = bound;
+    }
+
+    public static LatencySlo percentile(double percentile, Duration bound) {
+        return new LatencySlo(percentile, bound);
+    }
+
+    public static LatencySlo p50(Duration bound) {
+        return percentile(50.0, bound);
+    }
+
+    public static LatencySlo p99(Duration bound) {
+        return percentile(99.0, bound);
+    }
+
+    public static LatencySlo max(Duration bound) {
+        return percentile(100.0, bound);
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public Duration getBound() {
+        return bound;
+    }
+
+    @Override
+    public String toString() {
+        return (percentile == 100.0 ? "max" : "p" + percentile) + " < " + bound.toMillis() + "ms";
+    }
+}
@@ -0,0 +1,73 @@
+package latency;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket that caps extra requests (hedges and retries) at a fraction of the original ones.
+ *
+ * Every original request deposits ratio tokens, up to maxTokens; every extra request withdraws one
+ * whole token or is refused. With ratio 0.1 the extra load stays below 10% plus the burst allowance,
+ * so a slow or failing target is not hit with twice the traffic exactly when it is struggling.
+ *
+ * The shared budget reads -Dapi.hedge.budgetRatio (0.1) and -Dapi.hedge.budgetTokens (10).
+ */
+public final class RetryBudget {
+
+    private static final RetryBudget GLOBAL = new RetryBudget(
+        Double.parseDouble(System.getProperty("api.hedge.budgetRatio", "0.1")),
+        Double.parseDouble(System.getProperty("api.hedge.budgetTokens", "10")));
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    private final LongAdder deposits = new LongAdder();
+    private final LongAdder withdrawals = new LongAdder();
+    private final LongAdder refusals = new LongAdder();
+
+    public RetryBudget(double ratio, double maxTokens) {
+        if (ratio < 0 || maxTokens < 1) {
+            throw new IllegalArgumentException("Budget needs a non-negative ratio and room for at least one token");
+        }
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    /**
+     * Budget shared by every hedger that is not given its own
+     */
+    public static RetryBudget global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Credits one original request
+     */
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+        deposits.increment();
+    }
+
+    /**
+     * Takes one token for an extra request; false when the budget is exhausted
+     */
+    public synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            refusals.increment();
+            return false;
+        }
+        tokens -= 1;
+        withdrawals.increment();
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        long original = deposits.sum();
+        long extra = withdrawals.sum();
+        return String.format(Locale.ROOT, "original=%d extra=%d (%.1f%%) refused=%d",
+            original, extra, original == 0 ? 0 : extra * 100.0 / original, refusals.sum());
+    }
+}
@@ -0,0 +1,139 @@
+package logging;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * RestAssured filter that records request/response exchanges into a bounded per-thread
+ * ring buffer instead of printing them. Nothing is formatted unless the buffer is flushed,
+ * which ExchangeLogListener does only for failed tests.
+ *
+ * Flushed exchanges go to the "api.exchanges" logger, which logback-test.xml routes
+ * through an async appender.
+ */
+public final class ExchangeCapture implements Filter {
+
+    public static final String LOGGER_NAME = "api.exchanges";
+    private static final Logger EXCHANGES = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private static final int CAPACITY = Integer.getInteger("api.log.buffer", 32);
+    private static final ThreadLocal<Deque<Exchange>> BUFFER = ThreadLocal.withInitial(() -> new ArrayDeque<>(CAPACITY));
+
+    public static final ExchangeCapture INSTANCE = new ExchangeCapture();
+
+    private ExchangeCapture() {}
+
+    @Override
+    public Response filter(FilterableRequestSpecification request, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Exchange exchange = new Exchange(request.getMethod(), request.getURI(), request.getHeaders(), request.getBody());
+        record(exchange);
+        try {
+            exchange.response = ctx.next(request, responseSpec);
+            return exchange.response;
+        } catch (RuntimeException e) {
+            exchange.failure = e;
+            throw e;
+        }
+    }
+
+    private static void record(Exchange exchange) {
+        Deque<Exchange> buffer = BUFFER.get();
+        if (buffer.size() == CAPACITY) {
+            buffer.pollFirst();
+        }
+        buffer.addLast(exchange);
+    }
+
+    /**
+     * Drops whatever the current thread recorded so far
+     */
+    public static void clear() {
+        BUFFER.get().clear();
+    }
+
+    /**
+     * Logs every exchange recorded by the current thread, oldest first, then clears the buffer
+     */
+    public static void flush(String testName) {
+        Deque<Exchange> buffer = BUFFER.get();
+        if (buffer.isEmpty()) {
+            return;
+        }
+        EXCHANGES.warn("{} failed; last {} exchange(s):", testName, buffer.size());
+        for (Exchange exchange; (exchange = buffer.pollFirst()) != null; ) {
+            EXCHANGES.warn("{}", exchange.format());
+        }
+    }
+
+    /**
+     * The exchanges recorded by the current thread, oldest first, formatted as flush logs them;
+     * the buffer is left as it is
+     */
+    public static List<String> formatted() {
+        List<String> exchanges = new ArrayList<>();
+        for (Exchange exchange : BUFFER.get()) {
+            exchanges.add(exchange.format());
+        }
+        return exchanges;
+    }
+
+    private static final class Exchange {
+        private final String method;
+        private final String uri;
+        private final Headers headers;
+        private final Object body;
+        private Response response;
+        private Throwable failure;
+
+        private Exchange(String method, String uri, Headers headers, Object body) {
+            this.method = method;
+            this.uri = uri;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        private String format() {
+            StringBuilder out = new StringBuilder(512);
+            out.append(method).append(' ').append(uri).append('\n');
+            appendHeaders(out, headers);
+            // Pre-encoded bodies, e.g. from UserBodies, arrive as the byte[] that was sent
+            if (body instanceof byte[]) {
+                out.append(new String((byte[]) body, StandardCharsets.UTF_8)).append('\n');
+            } else if (body != null) {
+                out.append(body).append('\n');
+            }
+            if (failure != null) {
+                out.append("<-- failed: ").append(failure);
+            } else if (response != null) {
+                out.append("<-- ").append(response.getStatusLine()).append(" (")
+                    .append(response.getTime()).append(" ms)\n");
+                appendHeaders(out, response.getHeaders());
+                out.append(response.asString());
+            }
+            return out.toString();
+        }
+
+        private static void appendHeaders(StringBuilder out, Headers headers) {
+            if (headers == null) {
+                return;
+            }
+            for (Header header : headers) {
+                out.append(header.getName()).append(": ").append(header.getValue()).append('\n');
+            }
+        }
+    }
+}
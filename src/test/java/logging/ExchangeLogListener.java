@@ -0,0 +1,47 @@
+package logging;
+
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.util.Arrays;
+
+/**
+ * Flushes the exchanges captured by ExchangeCapture only when a test fails.
+ * Callbacks run on the thread executing the test, which is the thread that owns the buffer.
+ */
+public class ExchangeLogListener implements ITestListener {
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        ExchangeCapture.clear();
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        ExchangeCapture.clear();
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        ExchangeCapture.flush(testName(result));
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        ExchangeCapture.flush(testName(result));
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        ExchangeCapture.clear();
+    }
+
+    private static String testName(ITestResult result) {
+        StringBuilder name = new StringBuilder(result.getMethod().getQualifiedName());
+        Object[] parameters = result.getParameters();
+        if (parameters != null && parameters.length > 0) {
+            name.append(Arrays.toString(parameters));
+        }
+        return name.toString();
+    }
+}
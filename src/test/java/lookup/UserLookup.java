@@ -0,0 +1,332 @@
+package lookup;
+
+import config.RequestSpecs;
+import io.restassured.response.Response;
+import models.User;
+import models.UserListStream;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Client-side user lookup that coalesces concurrent single-user fetches.
+ *
+ * Lookups for an ID that is already being fetched share the pending result (single-flight).
+ * New IDs are queued and sent together as one bulk request when the batch is full or the batch
+ * window has passed since its first ID, whichever comes first. Up to the configured number of
+ * batches are fetched concurrently.
+ *
+ * After close(), lookups fail with IllegalStateException instead of waiting for a batch that
+ * would never be sent.
+ *
+ * Defaults come from -Dapi.lookup.maxBatch (50), -Dapi.lookup.windowMicros (2000) and
+ * -Dapi.lookup.concurrency (8).
+ */
+public final class UserLookup implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserLookup.class);
+
+    private final BulkSource source;
+    private final int maxBatch;
+    private final long windowMicros;
+    private final ConcurrentHashMap<Integer, CompletableFuture<User>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService fetchers;
+
+    private final Object batchLock = new Object();
+    private List<Integer> pending = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+    private volatile boolean closed;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder dedupHits = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final Histogram batchSizes = new ConcurrentHistogram(3);
+
+    public UserLookup(BulkSource source) {
+        this(source, Integer.getInteger("api.lookup.maxBatch", 50), Long.getLong("api.lookup.windowMicros", 2000L),
+            Integer.getInteger("api.lookup.concurrency", 8));
+    }
+
+    public UserLookup(BulkSource source, int maxBatch, long windowMicros, int concurrency) {
+        if (maxBatch < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("Batch size and concurrency must be at least 1");
+        }
+        this.source = source;
+        this.maxBatch = maxBatch;
+        this.windowMicros = windowMicros;
+        AtomicInteger threads = new AtomicInteger();
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "user-lookup-timer"));
+        this.fetchers = Executors.newFixedThreadPool(concurrency,
+            r -> daemon(r, "user-lookup-" + threads.incrementAndGet()));
+    }
+
+    /**
+     * Lookup against the configured target through the per-thread RestAssured spec
+     */
+    public static UserLookup restAssured() {
+        return new UserLookup(restAssuredSource());
+    }
+
+    /**
+     * Bulk source for the configured target, for lookups with explicit batching settings
+     */
+    public static BulkSource restAssuredSource() {
+        return new RestAssuredSource();
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Future of the user, completed with null when it does not exist
+     */
+    public CompletableFuture<User> get(int id) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("UserLookup is closed"));
+        }
+        lookups.increment();
+        CompletableFuture<User> existing = inFlight.get(id);
+        if (existing == null) {
+            CompletableFuture<User> created = new CompletableFuture<>();
+            existing = inFlight.putIfAbsent(id, created);
+            if (existing == null) {
+                enqueue(id);
+                return created;
+            }
+        }
+        dedupHits.increment();
+        return existing;
+    }
+
+    /**
+     * Blocking lookup; returns null when the user does not exist
+     */
+    public User find(int id) throws IOException {
+        try {
+            return get(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void enqueue(int id) {
+        List<Integer> full = null;
+        synchronized (batchLock) {
+            pending.add(id);
+            if (pending.size() >= maxBatch) {
+                full = takePending();
+            } else if (flushTask == null) {
+                try {
+                    flushTask = timer.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Closed since get() checked; dispatch fails the batch
+                    full = takePending();
+                }
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+    }
+
+    /**
+     * Sends the queued IDs now instead of waiting for the batch window
+     */
+    public void flush() {
+        List<Integer> batch;
+        synchronized (batchLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+
+    private List<Integer> takePending() {
+        List<Integer> batch = pending;
+        pending = new ArrayList<>(Math.min(maxBatch, 64));
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Integer> batch) {
+        batches.increment();
+        batchSizes.recordValue(batch.size());
+        try {
+            fetchers.execute(() -> {
+                try {
+                    Map<Integer, User> users = source.fetch(batch);
+                    for (int id : batch) {
+                        inFlight.remove(id).complete(users.get(id));
+                    }
+                } catch (Throwable e) {
+                    fail(batch, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queued before close() and dispatched after it; nobody would complete these otherwise
+            fail(batch, new IllegalStateException("UserLookup is closed", e));
+        }
+    }
+
+    private void fail(List<Integer> batch, Throwable e) {
+        failedBatches.increment();
+        for (int id : batch) {
+            inFlight.remove(id).completeExceptionally(e);
+        }
+    }
+
+    public Stats stats() {
+        Histogram sizes = batchSizes.copy();
+        return new Stats(lookups.sum(), dedupHits.sum(), batches.sum(), failedBatches.sum(),
+            sizes.getTotalCount() == 0 ? 0 : sizes.getMean(), sizes.getValueAtPercentile(50), sizes.getMaxValue());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        flush();
+        timer.shutdownNow();
+        fetchers.shutdown();
+        try {
+            fetchers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("User lookup: {}", stats());
+    }
+
+    /**
+     * Fetches several users at once; IDs that do not exist are absent from the result
+     */
+    @FunctionalInterface
+    public interface BulkSource {
+        Map<Integer, User> fetch(List<Integer> ids) throws IOException;
+    }
+
+    /**
+     * GET /users?ids=... on the stand-in. The public ReqRes API ignores ids and answers with a
+     * normal page, which is detected by users that were not asked for; from then on every ID is
+     * fetched on its own, so only single-flight deduplication remains.
+     */
+    static final class RestAssuredSource implements BulkSource {
+        private volatile boolean bulkSupported = true;
+
+        @Override
+        public Map<Integer, User> fetch(List<Integer> ids) throws IOException {
+            if (bulkSupported) {
+                Map<Integer, User> users = bulk(ids);
+                if (users != null) {
+                    return users;
+                }
+                bulkSupported = false;
+                LOG.warn("Target ignores /users?ids=, falling back to one request per ID");
+            }
+            Map<Integer, User> users = new HashMap<>();
+            for (int id : ids) {
+                Response response = given().spec(RequestSpecs.base()).pathParam("userId", id).get("/users/{userId}");
+                if (response.statusCode() == 200) {
+                    users.put(id, response.jsonPath().getObject("data", User.class));
+                } else if (response.statusCode() != 404) {
+                    throw new IOException("GET /users/" + id + " returned " + response.statusCode());
+                }
+            }
+            return users;
+        }
+
+        /**
+         * Users by ID, or null when the response holds users that were not requested
+         */
+        private static Map<Integer, User> bulk(List<Integer> ids) throws IOException {
+            Response response = given()
+                .spec(RequestSpecs.base())
+                .queryParam("ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                // Keeps an ignored ids parameter from hiding requested users on a later page
+                .queryParam("per_page", ids.size())
+                .get("/users");
+            if (response.statusCode() != 200) {
+                throw new IOException("Bulk lookup returned " + response.statusCode());
+            }
+            Map<Integer, User> users = new HashMap<>();
+            try (InputStream body = response.asInputStream()) {
+                UserListStream.forEach(body, user -> users.put(user.getId(), user));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return ids.containsAll(users.keySet()) ? users : null;
+        }
+    }
+
+    /**
+     * Point-in-time coalescing counters
+     */
+    public static final class Stats {
+        public final long lookups;
+        public final long dedupHits;
+        public final long batches;
+        public final long failedBatches;
+        public final double meanBatchSize;
+        public final long medianBatchSize;
+        public final long maxBatchSize;
+
+        Stats(long lookups, long dedupHits, long batches, long failedBatches, double meanBatchSize,
+              long medianBatchSize, long maxBatchSize) {
+            this.lookups = lookups;
+            this.dedupHits = dedupHits;
+            this.batches = batches;
+            this.failedBatches = failedBatches;
+            this.meanBatchSize = meanBatchSize;
+            this.medianBatchSize = medianBatchSize;
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public double dedupHitRatio() {
+            return lookups == 0 ? 0 : (double) dedupHits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "lookups=%d dedupHits=%d (%.1f%%) batches=%d failed=%d batchSize mean=%.1f p50=%d max=%d",
+                lookups, dedupHits, dedupHitRatio() * 100, batches, failedBatches, meanBatchSize,
+                medianBatchSize, maxBatchSize);
+        }
+    }
+}
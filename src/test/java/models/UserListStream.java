@@ -0,0 +1,229 @@
+package models;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for user list pages built on the Jackson JsonParser.
+ * Yields one User at a time instead of materializing the whole data array,
+ * so memory stays constant regardless of per_page.
+ *
+ * Metadata that precedes "data" in the payload (page, per_page, total, total_pages
+ * as ReqRes sends them) is available as soon as the stream is opened; anything
+ * after the array is filled in once iteration completes.
+ */
+public class UserListStream implements Iterator<User>, Closeable {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final JsonParser parser;
+    private Integer page;
+    private Integer perPage;
+    private Integer total;
+    private Integer totalPages;
+    private UserListResponse.Support support;
+
+    private User next;
+    private boolean finished;
+
+    private UserListStream(JsonParser parser) throws IOException {
+        this.parser = parser;
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected JSON object at start of user list");
+        }
+        readFields();
+    }
+
+    public static UserListStream open(InputStream in) throws IOException {
+        return new UserListStream(JSON.createParser(in));
+    }
+
+    public static UserListStream open(byte[] body) throws IOException {
+        return new UserListStream(JSON.createParser(body));
+    }
+
+    /**
+     * Streams every user to the consumer and returns the page metadata (with null data)
+     */
+    public static UserListResponse forEach(InputStream in, Consumer<? super User> consumer) throws IOException {
+        try (UserListStream stream = open(in)) {
+            while (stream.hasNext()) {
+                consumer.accept(stream.next());
+            }
+            return stream.metadata();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                next = readUser(parser);
+                return true;
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IOException("Unexpected token in data array: " + token);
+            }
+            readFields();
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public User next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        User user = next;
+        next = null;
+        return user;
+    }
+
+    /**
+     * Reads top-level fields until the data array opens or the object ends
+     */
+    private void readFields() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "page":
+                    page = intValue(value);
+                    break;
+                case "per_page":
+                    perPage = intValue(value);
+                    break;
+                case "total":
+                    total = intValue(value);
+                    break;
+                case "total_pages":
+                    totalPages = intValue(value);
+                    break;
+                case "support":
+                    support = readSupport(parser);
+                    break;
+                case "data":
+                    if (value == JsonToken.START_ARRAY) {
+                        return;
+                    }
+                    parser.skipChildren();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new IOException("Malformed user list payload near " + token);
+        }
+        finished = true;
+    }
+
+    private Integer intValue(JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null;
+    }
+
+    static User readUser(JsonParser parser) throws IOException {
+        User user = new User();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id":
+                    user.setId(value == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null);
+                    break;
+                case "email":
+                    user.setEmail(parser.getValueAsString());
+                    break;
+                case "first_name":
+                    user.setFirstName(parser.getValueAsString());
+                    break;
+                case "last_name":
+                    user.setLastName(parser.getValueAsString());
+                    break;
+                case "avatar":
+                    user.setAvatar(parser.getValueAsString());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return user;
+    }
+
+    private static UserListResponse.Support readSupport(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        UserListResponse.Support support = new UserListResponse.Support();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("url".equals(field)) {
+                support.setUrl(parser.getValueAsString());
+            } else if ("text".equals(field)) {
+                support.setText(parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return support;
+    }
+
+    /**
+     * Page metadata seen so far, without the data list
+     */
+    public UserListResponse metadata() {
+        UserListResponse response = new UserListResponse();
+        response.setPage(page);
+        response.setPerPage(perPage);
+        response.setTotal(total);
+        response.setTotalPages(totalPages);
+        response.setSupport(support);
+        return response;
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public Integer getPerPage() {
+        return perPage;
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public UserListResponse.Support getSupport() {
+        return support;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,230 @@
+package pagination;
+
+import config.RequestSpecs;
+import models.User;
+import models.UserListStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Walks every page of /users with a bounded window of concurrent requests.
+ *
+ * The first page is requested alone to learn total_pages; as soon as that field has been parsed
+ * (ReqRes sends it before "data") the next pages are requested while page 1 is still being
+ * streamed to the consumer. Users always reach the consumer in page order. A page is only
+ * requested when an earlier one has been handed over, so at most window pages are buffered and
+ * a slow consumer slows the crawl down instead of filling the heap. A crawl of N pages costs
+ * about N / window round-trips instead of N.
+ *
+ * The default window comes from -Dapi.crawl.window (default 8).
+ */
+public class PageCrawler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PageCrawler.class);
+
+    private final PageSource source;
+    private final int perPage;
+    private int window = Integer.getInteger("api.crawl.window", 8);
+    private int maxPages = Integer.MAX_VALUE;
+
+    private PageCrawler(PageSource source, int perPage) {
+        if (perPage < 1) {
+            throw new IllegalArgumentException("per_page must be at least 1");
+        }
+        this.source = source;
+        this.perPage = perPage;
+    }
+
+    /**
+     * Crawler over the configured target, requesting pages through the per-thread RestAssured spec
+     */
+    public static PageCrawler users(int perPage) {
+        return of(PageCrawler::restAssuredPage, perPage);
+    }
+
+    public static PageCrawler of(PageSource source, int perPage) {
+        return new PageCrawler(source, perPage);
+    }
+
+    /**
+     * Maximum number of pages requested but not yet handed to the consumer
+     */
+    public PageCrawler window(int pages) {
+        if (pages < 1) {
+            throw new IllegalArgumentException("Window must be at least one page");
+        }
+        this.window = pages;
+        return this;
+    }
+
+    /**
+     * Stops after this many pages even if total_pages is larger
+     */
+    public PageCrawler maxPages(int pages) {
+        this.maxPages = pages;
+        return this;
+    }
+
+    /**
+     * Streams every user to the consumer in page order; failures of any page abort the crawl
+     */
+    public Result crawl(Consumer<? super User> consumer) throws IOException {
+        long start = System.nanoTime();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(window, r -> {
+            Thread thread = new Thread(r, "page-crawler-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<List<User>>> inFlight = new ArrayDeque<>();
+        long users = 0;
+        int pages = 1;
+        try {
+            Integer totalPages;
+            Integer total;
+            int nextPage = 2;
+            int lastPage;
+            try (UserListStream first = UserListStream.open(source.open(1, perPage))) {
+                totalPages = first.getTotalPages();
+                lastPage = lastPage(totalPages);
+                while (nextPage <= lastPage && inFlight.size() < window) {
+                    inFlight.add(submit(pool, nextPage++));
+                }
+                while (first.hasNext()) {
+                    consumer.accept(first.next());
+                    users++;
+                }
+                if (totalPages == null) {
+                    // Metadata after the data array: the window starts one round-trip later
+                    totalPages = first.getTotalPages();
+                    lastPage = lastPage(totalPages);
+                }
+                total = first.getTotal();
+            }
+            while (!inFlight.isEmpty() || nextPage <= lastPage) {
+                while (nextPage <= lastPage && inFlight.size() < window) {
+                    inFlight.add(submit(pool, nextPage++));
+                }
+                // The slot is only refilled at the top of the loop, once this page has been consumed:
+                // it stays buffered until then, and the other window - 1 pages keep the crawl busy
+                List<User> page = await(inFlight.removeFirst());
+                page.forEach(consumer);
+                users += page.size();
+                pages++;
+            }
+            Result result = new Result(pages, users, totalPages, total, window, System.nanoTime() - start);
+            LOG.info("{}", result);
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int lastPage(Integer totalPages) {
+        return Math.min(totalPages == null ? 1 : totalPages, maxPages);
+    }
+
+    private Future<List<User>> submit(ExecutorService pool, int page) {
+        return pool.submit(() -> {
+            List<User> users = new ArrayList<>(perPage);
+            try (UserListStream stream = UserListStream.open(source.open(page, perPage))) {
+                stream.forEachRemaining(users::add);
+            }
+            return users;
+        });
+    }
+
+    private static List<User> await(Future<List<User>> page) throws IOException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a page");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static InputStream restAssuredPage(int page, int perPage) {
+        return given()
+            .spec(RequestSpecs.base())
+            .queryParam("page", page)
+            .queryParam("per_page", perPage)
+            .when()
+            .get("/users")
+            .then()
+            .statusCode(200)
+            .extract()
+            .asInputStream();
+    }
+
+    /**
+     * Opens the body of one user list page
+     */
+    @FunctionalInterface
+    public interface PageSource {
+        InputStream open(int page, int perPage) throws IOException;
+    }
+
+    /**
+     * Outcome of one crawl
+     */
+    public static final class Result {
+        public final int pages;
+        public final long users;
+        public final Integer totalPages;
+        public final Integer total;
+        public final int window;
+        public final long elapsedNanos;
+
+        Result(int pages, long users, Integer totalPages, Integer total, int window, long elapsedNanos) {
+            this.pages = pages;
+            this.users = users;
+            this.totalPages = totalPages;
+            this.total = total;
+            this.window = window;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double pagesPerSecond() {
+            return pages / Math.max(1e-9, elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Crawled %d/%s pages, %d/%s users with window %d in %.1f ms (%.0f pages/s)",
+                pages, totalPages, users, total, window, elapsedNanos / 1e6, pagesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package regression;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stored per-request percentiles of a reference run, one tab-separated line per request:
+ *
+ * # simulation=apiloadsimulation run=apiloadsimulation-20240101120000000
+ * request  count  ko  p50  p75  p90  p95  p99  max
+ *
+ * Small enough to commit next to the code it describes.
+ */
+public class Baseline {
+
+    private static final String HEADER = "request\tcount\tko\tp50\tp75\tp90\tp95\tp99\tmax";
+
+    private final String comment;
+    private final Map<String, RequestStats> requests;
+
+    Baseline(String comment, Map<String, RequestStats> requests) {
+        this.comment = comment;
+        this.requests = requests;
+    }
+
+    public Map<String, RequestStats> requests() {
+        return requests;
+    }
+
+    public String comment() {
+        return comment;
+    }
+
+    public static Baseline read(Path file) throws IOException {
+        Map<String, RequestStats> requests = new LinkedHashMap<>();
+        String comment = "";
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.startsWith("#")) {
+                    comment = line.substring(1).trim();
+                    continue;
+                }
+                if (line.isBlank() || line.equals(HEADER)) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (fields.length != 4 + RequestStats.PERCENTILES.length) {
+                    throw new IOException(file + ":" + lineNumber + ": expected " + HEADER.replace('\t', ' '));
+                }
+                long[] percentiles = new long[RequestStats.PERCENTILES.length];
+                for (int i = 0; i < percentiles.length; i++) {
+                    percentiles[i] = Long.parseLong(fields[3 + i]);
+                }
+                RequestStats stats = new RequestStats(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                    percentiles, Long.parseLong(fields[fields.length - 1]));
+                requests.put(stats.getRequest(), stats);
+            }
+        }
+        return new Baseline(comment, requests);
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# " + comment);
+            out.newLine();
+            out.write(HEADER);
+            out.newLine();
+            for (RequestStats stats : requests.values()) {
+                StringBuilder line = new StringBuilder(stats.getRequest())
+                    .append('\t').append(stats.getCount())
+                    .append('\t').append(stats.getKo());
+                Arrays.stream(RequestStats.PERCENTILES)
+                    .forEach(p -> line.append('\t').append(stats.percentileMillis(p)));
+                line.append('\t').append(stats.getMaxMillis());
+                out.write(line.toString());
+                out.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package regression;
+
+import config.TestConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the latest Gatling run of each simulation against its stored baseline and
+ * fails when a request got slower or started failing more often.
+ *
+ * A percentile regresses when it exceeds the baseline by more than the relative tolerance
+ * and by more than minDeltaMs, so 1ms to 2ms on a local target is not flagged as +100%.
+ * Requests with fewer than minSamples calls in either run are reported but not gated.
+ * A missing baseline is created from the current run; -Dregression.update=true replaces it.
+ *
+ * -Dregression.percentiles=50,95,99 -Dregression.tolerance=0.20 (-Dregression.tolerance.p99=... per percentile)
+ * -Dregression.minDeltaMs=5 -Dregression.maxKoIncrease=1.0 (percentage points) -Dregression.minSamples=20
+ * -Dregression.simulations=apiloadsimulation,... (default: every simulation in resultsDir)
+ */
+public class RegressionGate {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegressionGate.class);
+    private static final Pattern RUN_DIRECTORY = Pattern.compile("(.+)-(\\d+)");
+
+    private final Path resultsDir = Paths.get(System.getProperty("regression.resultsDir", "target/gatling"));
+    private final Path baselineDir = Paths.get(System.getProperty("regression.baselineDir", "baselines"));
+    private final boolean update = Boolean.getBoolean("regression.update");
+    private final double[] percentiles = parsePercentiles(System.getProperty("regression.percentiles", "50,95,99"));
+    private final double tolerance = Double.parseDouble(System.getProperty("regression.tolerance", "0.20"));
+    private final long minDeltaMs = Long.getLong("regression.minDeltaMs", 5);
+    private final double maxKoIncrease = Double.parseDouble(System.getProperty("regression.maxKoIncrease", "1.0"));
+    private final long minSamples = Long.getLong("regression.minSamples", 20);
+    private final List<String> simulations = parseList(System.getProperty("regression.simulations", ""));
+
+    /**
+     * Latest run directory per simulation id, e.g. apiloadsimulation -> apiloadsimulation-20240101120000000
+     */
+    Map<String, Path> latestRuns() throws IOException {
+        Map<String, Path> latest = new TreeMap<>();
+        if (!Files.isDirectory(resultsDir)) {
+            return latest;
+        }
+        try (DirectoryStream<Path> runs = Files.newDirectoryStream(resultsDir, Files::isDirectory)) {
+            for (Path run : runs) {
+                Matcher matcher = RUN_DIRECTORY.matcher(run.getFileName().toString());
+                if (!matcher.matches() || !Files.isRegularFile(run.resolve("simulation.log"))) {
+                    continue;
+                }
+                String simulation = matcher.group(1);
+                if (!simulations.isEmpty() && !simulations.contains(simulation)) {
+                    continue;
+                }
+                latest.merge(simulation, run, (a, b) -> a.getFileName().toString().compareTo(b.getFileName().toString()) >= 0 ? a : b);
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Checks every latest run; returns the regressions found across all of them
+     */
+    public List<String> run() throws IOException {
+        Map<String, Path> runs = latestRuns();
+        if (runs.isEmpty()) {
+            throw new IllegalStateException("No Gatling runs with a simulation.log under " + resultsDir.toAbsolutePath());
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Path> run : runs.entrySet()) {
+            regressions.addAll(check(run.getKey(), run.getValue()));
+        }
+        return regressions;
+    }
+
+    List<String> check(String simulation, Path runDir) throws IOException {
+        Map<String, RequestStats> current = SimulationLogParser.parse(runDir.resolve("simulation.log"));
+        // Stand-in and remote latencies differ by orders of magnitude, so each target keeps its own baseline
+        Path baselineFile = baselineDir.resolve(simulation + "-" + (TestConfig.LOCAL_TARGET ? "local" : "remote") + ".tsv");
+        if (update || !Files.exists(baselineFile)) {
+            new Baseline("simulation=" + simulation + " run=" + runDir.getFileName(), current).write(baselineFile);
+            LOG.info("{} baseline {} from {}", update ? "Updated" : "Created", baselineFile, runDir.getFileName());
+            return List.of();
+        }
+        Baseline baseline = Baseline.read(baselineFile);
+        List<String> regressions = new ArrayList<>();
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%n%-40s %-6s %10s %10s %9s  %s%n",
+            "Request", "Metric", "Baseline", "Current", "Delta", "Status"));
+
+        for (RequestStats now : current.values()) {
+            RequestStats before = baseline.requests().get(now.getRequest());
+            if (before == null) {
+                row(table, now.getRequest(), "n", "-", String.valueOf(now.getCount()), "", "new");
+                continue;
+            }
+            boolean gated = before.getCount() >= minSamples && now.getCount() >= minSamples;
+            for (double percentile : percentiles) {
+                long was = before.percentileMillis(percentile);
+                long is = now.percentileMillis(percentile);
+                double limit = tolerance(percentile);
+                boolean regressed = gated && is > was * (1 + limit) && is - was > minDeltaMs;
+                String status = regressed ? "REGRESSED" : gated ? "ok" : "low n";
+                row(table, now.getRequest(), RequestStats.label(percentile), was + "ms", is + "ms", delta(was, is), status);
+                if (regressed) {
+                    regressions.add(String.format(Locale.ROOT, "%s: %s %s %dms -> %dms (limit +%.0f%%)",
+                        simulation, now.getRequest(), RequestStats.label(percentile), was, is, limit * 100));
+                }
+            }
+            double koIncrease = now.koPercent() - before.koPercent();
+            boolean koRegressed = gated && koIncrease > maxKoIncrease;
+            row(table, now.getRequest(), "KO%", fmt(before.koPercent()), fmt(now.koPercent()),
+                String.format(Locale.ROOT, "%+.2fpp", koIncrease), koRegressed ? "REGRESSED" : gated ? "ok" : "low n");
+            if (koRegressed) {
+                regressions.add(String.format(Locale.ROOT, "%s: %s KO %.2f%% -> %.2f%%",
+                    simulation, now.getRequest(), before.koPercent(), now.koPercent()));
+            }
+        }
+        for (String missing : baseline.requests().keySet()) {
+            if (!current.containsKey(missing)) {
+                row(table, missing, "n", String.valueOf(baseline.requests().get(missing).getCount()), "-", "", "missing");
+            }
+        }
+
+        LOG.info("{} ({}) vs {}:{}", simulation, runDir.getFileName(), baselineFile, table);
+        return regressions;
+    }
+
+    private double tolerance(double percentile) {
+        String specific = System.getProperty("regression.tolerance." + RequestStats.label(percentile));
+        return specific == null ? tolerance : Double.parseDouble(specific);
+    }
+
+    private static void row(StringBuilder table, String request, String metric, String was, String is, String delta, String status) {
+        table.append(String.format(Locale.ROOT, "%-40s %-6s %10s %10s %9s  %s%n", request, metric, was, is, delta, status));
+    }
+
+    private static String delta(long was, long is) {
+        return was == 0 ? (is == 0 ? "0%" : "+inf") : String.format(Locale.ROOT, "%+.1f%%", 100.0 * (is - was) / was);
+    }
+
+    private static String fmt(double percent) {
+        return String.format(Locale.ROOT, "%.2f%%", percent);
+    }
+
+    static double[] parsePercentiles(String value) {
+        double[] parsed = parseList(value).stream().mapToDouble(Double::parseDouble).toArray();
+        Arrays.stream(parsed).forEach(RequestStats::indexOf);
+        return parsed;
+    }
+
+    private static List<String> parseList(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return items;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> regressions = new RegressionGate().run();
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException("Performance regressions against baseline:\n  " + String.join("\n  ", regressions));
+        }
+        LOG.info("No performance regressions against baseline");
+    }
+}
@@ -0,0 +1,88 @@
+package regression;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Locale;
+
+/**
+ * Per-request summary of one Gatling run: counts and response-time percentiles in milliseconds.
+ * This is also the unit stored in a baseline file.
+ */
+public class RequestStats {
+
+    static final double[] PERCENTILES = {50.0, 75.0, 90.0, 95.0, 99.0};
+
+    private final String request;
+    private final long count;
+    private final long ko;
+    private final long[] percentileMillis;
+    private final long maxMillis;
+
+    RequestStats(String request, long count, long ko, long[] percentileMillis, long maxMillis) {
+        if (percentileMillis.length != PERCENTILES.length) {
+            throw new IllegalArgumentException("Expected " + PERCENTILES.length + " percentiles for " + request);
+        }
+        this.request = request;
+        this.count = count;
+        this.ko = ko;
+        this.percentileMillis = percentileMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    static RequestStats of(String request, Histogram histogram, long ko) {
+        long[] values = new long[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            values[i] = histogram.getValueAtPercentile(PERCENTILES[i]);
+        }
+        return new RequestStats(request, histogram.getTotalCount(), ko, values, histogram.getMaxValue());
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getKo() {
+        return ko;
+    }
+
+    /**
+     * Failed requests as a percentage of all requests
+     */
+    public double koPercent() {
+        return count == 0 ? 0 : 100.0 * ko / count;
+    }
+
+    /**
+     * Response time at one of the stored percentiles, in milliseconds
+     */
+    public long percentileMillis(double percentile) {
+        return percentileMillis[indexOf(percentile)];
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    static int indexOf(double percentile) {
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (PERCENTILES[i] == percentile) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Percentile " + percentile + " is not stored; use one of 50, 75, 90, 95, 99");
+    }
+
+    static String label(double percentile) {
+        return "p" + (percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s n=%d ko=%d p50=%dms p95=%dms p99=%dms max=%dms",
+            request, count, ko, percentileMillis(50), percentileMillis(95), percentileMillis(99), maxMillis);
+    }
+}
@@ -0,0 +1,99 @@
+package regression;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams a Gatling simulation.log one line at a time and aggregates REQUEST records
+ * into one histogram per request name, so memory depends on the number of distinct
+ * requests rather than the size of the log.
+ *
+ * Record layout (tab separated): REQUEST, group, name, start, end, OK|KO, message.
+ * Truncated lines, e.g. from a run that was killed, are ignored.
+ */
+public class SimulationLogParser {
+
+    public static final String GLOBAL = "Global";
+
+    private static final String REQUEST_RECORD = "REQUEST\t";
+    private static final long HIGHEST_TRACKABLE_MILLIS = 3_600_000L;
+
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+    private final Map<String, long[]> koCounts = new LinkedHashMap<>();
+    private final Histogram global = newHistogram();
+    private long globalKo;
+
+    /**
+     * Per-request statistics for the log, in first-seen order, followed by the Global row
+     */
+    public static Map<String, RequestStats> parse(Path simulationLog) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(simulationLog, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    static Map<String, RequestStats> parse(Reader in) throws IOException {
+        SimulationLogParser parser = new SimulationLogParser();
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(REQUEST_RECORD)) {
+                parser.accept(line);
+            }
+        }
+        return parser.result();
+    }
+
+    void accept(String line) {
+        // Field boundaries found with indexOf to avoid a regex split per line
+        int groupEnd = line.indexOf('\t', REQUEST_RECORD.length());
+        int nameEnd = groupEnd < 0 ? -1 : line.indexOf('\t', groupEnd + 1);
+        int startEnd = nameEnd < 0 ? -1 : line.indexOf('\t', nameEnd + 1);
+        int endEnd = startEnd < 0 ? -1 : line.indexOf('\t', startEnd + 1);
+        if (endEnd < 0) {
+            return;
+        }
+        int statusEnd = line.indexOf('\t', endEnd + 1);
+        String group = line.substring(REQUEST_RECORD.length(), groupEnd);
+        String name = line.substring(groupEnd + 1, nameEnd);
+        String status = line.substring(endEnd + 1, statusEnd < 0 ? line.length() : statusEnd);
+        long elapsed;
+        try {
+            elapsed = Long.parseLong(line, startEnd + 1, endEnd, 10) - Long.parseLong(line, nameEnd + 1, startEnd, 10);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        String key = group.isEmpty() ? name : group + " / " + name;
+        long millis = Math.max(0, Math.min(elapsed, HIGHEST_TRACKABLE_MILLIS));
+        histograms.computeIfAbsent(key, k -> newHistogram()).recordValue(millis);
+        global.recordValue(millis);
+        if ("KO".equals(status)) {
+            koCounts.computeIfAbsent(key, k -> new long[1])[0]++;
+            globalKo++;
+        }
+    }
+
+    Map<String, RequestStats> result() {
+        Map<String, RequestStats> stats = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) -> {
+            long[] ko = koCounts.get(name);
+            stats.put(name, RequestStats.of(name, histogram, ko == null ? 0 : ko[0]));
+        });
+        if (global.getTotalCount() > 0) {
+            stats.put(GLOBAL, RequestStats.of(GLOBAL, global, globalKo));
+        }
+        return stats;
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_MILLIS, 3);
+    }
+}
@@ -0,0 +1,359 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Latency and fault profile of the local stand-in, replaceable while it runs.
+ *
+ * A profile is a list of rules separated by ';'. Each rule is a route, '->' and comma-separated options;
+ * the first rule whose route matches a request applies:
+ *
+ *   GET /users/* -> lognormal(20ms, 0.8), 5xx=0.01, reset=0.002, trickle=0.01:50ms; * -> fixed(5ms)
+ *
+ * Routes are an optional method and a path below /api where '*' matches anything, or '*' alone.
+ * Latency is one of fixed(d), uniform(min, max), lognormal(median, sigma) or bimodal(fast, slow, p),
+ * with durations in us, ms or s. Faults are chosen per request with the given probability:
+ * 5xx=rate[:status] answers with an error status (503 by default), reset=rate aborts the connection
+ * with a TCP reset, and trickle=rate[:interval] sends the body in small chunks with a pause between
+ * them (50ms by default). A named profile from PROFILES can be used instead of rules.
+ */
+public final class FaultInjector {
+
+    /**
+     * Ready-made profiles, selectable by name
+     */
+    public static final Map<String, String> PROFILES;
+
+    static {
+        Map<String, String> profiles = new LinkedHashMap<>();
+        profiles.put("none", "");
+        profiles.put("slow-tail", "GET /users/* -> bimodal(0ms, 200ms, 0.02)");
+        profiles.put("lognormal", "* -> lognormal(20ms, 0.8)");
+        profiles.put("flaky", "* -> 5xx=0.02, reset=0.01, trickle=0.01");
+        profiles.put("degraded", "GET /users* -> lognormal(50ms, 1.0), 5xx=0.01, trickle=0.01:100ms; "
+            + "* -> uniform(20ms, 200ms), 5xx=0.02, reset=0.005");
+        PROFILES = Collections.unmodifiableMap(profiles);
+    }
+
+    /**
+     * Longest delay a ?delay= parameter can ask for
+     */
+    static final long MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private volatile Profile profile;
+
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder trickles = new LongAdder();
+
+    public FaultInjector(String spec) {
+        this.profile = Profile.parse(spec);
+    }
+
+    /**
+     * Injector configured by -Dapi.local.faults, a profile name or rules; none when unset
+     */
+    public static FaultInjector fromSystemProperties() {
+        return new FaultInjector(System.getProperty("api.local.faults", "none"));
+    }
+
+    /**
+     * Replaces the profile for requests arriving from now on
+     *
+     * @throws IllegalArgumentException when the spec does not parse; the current profile stays
+     */
+    public void set(String spec) {
+        this.profile = Profile.parse(spec);
+    }
+
+    /**
+     * Rules of the current profile in spec form
+     */
+    public String spec() {
+        return profile.toString();
+    }
+
+    /**
+     * Decides what happens to one request; delayParamNanos is the ?delay= value or 0
+     */
+    Decision decide(String method, String path, long delayParamNanos) {
+        Rule rule = profile.match(method, path);
+        if (rule == null && delayParamNanos <= 0) {
+            return Decision.NONE;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = Math.min(MAX_DELAY_NANOS, delayParamNanos + (rule == null ? 0 : rule.latency.sample(random)));
+        Kind kind = Kind.NONE;
+        int status = 0;
+        long interval = 0;
+        if (rule != null) {
+            double roll = random.nextDouble();
+            if ((roll -= rule.errorRate) < 0) {
+                kind = Kind.ERROR;
+                status = rule.errorStatus;
+                errors.increment();
+            } else if ((roll -= rule.resetRate) < 0) {
+                kind = Kind.RESET;
+                resets.increment();
+            } else if (roll - rule.trickleRate < 0) {
+                kind = Kind.TRICKLE;
+                interval = rule.trickleIntervalNanos;
+                trickles.increment();
+            }
+        }
+        if (delay > 0) {
+            delayed.increment();
+        }
+        return new Decision(delay, kind, status, interval);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "delayed=%d errors=%d resets=%d trickled=%d profile=[%s]",
+            delayed.sum(), errors.sum(), resets.sum(), trickles.sum(), profile);
+    }
+
+    enum Kind { NONE, ERROR, RESET, TRICKLE }
+
+    /**
+     * What to do with one request: wait delayNanos, then answer normally or apply the fault
+     */
+    static final class Decision {
+        static final Decision NONE = new Decision(0, Kind.NONE, 0, 0);
+
+        final long delayNanos;
+        final Kind kind;
+        final int status;
+        final long trickleIntervalNanos;
+
+        Decision(long delayNanos, Kind kind, int status, long trickleIntervalNanos) {
+            this.delayNanos = delayNanos;
+            this.kind = kind;
+            this.status = status;
+            this.trickleIntervalNanos = trickleIntervalNanos;
+        }
+    }
+
+    private static final class Profile {
+        final List<Rule> rules;
+
+        Profile(List<Rule> rules) {
+            this.rules = rules;
+        }
+
+        static Profile parse(String spec) {
+            String rules = PROFILES.getOrDefault(spec.trim(), spec).trim();
+            List<Rule> parsed = new ArrayList<>();
+            if (!rules.isEmpty()) {
+                for (String rule : rules.split(";")) {
+                    if (!rule.isBlank()) {
+                        parsed.add(Rule.parse(rule.trim()));
+                    }
+                }
+            }
+            return new Profile(parsed);
+        }
+
+        Rule match(String method, String path) {
+            for (Rule rule : rules) {
+                if (rule.matches(method, path)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            List<String> specs = new ArrayList<>(rules.size());
+            rules.forEach(rule -> specs.add(rule.spec));
+            return String.join("; ", specs);
+        }
+    }
+
+    private static final class Rule {
+        final String spec;
+        final String method;
+        final Pattern path;
+        Latency latency = random -> 0;
+        double errorRate;
+        int errorStatus = 503;
+        double resetRate;
+        double trickleRate;
+        long trickleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(50);
+
+        private Rule(String spec, String method, Pattern path) {
+            this.spec = spec;
+            this.method = method;
+            this.path = path;
+        }
+
+        static Rule parse(String spec) {
+            int arrow = spec.indexOf("->");
+            if (arrow < 0) {
+                throw new IllegalArgumentException("Fault rule needs 'route -> options': " + spec);
+            }
+            String route = spec.substring(0, arrow).trim();
+            String method = null;
+            String glob = route;
+            int space = route.indexOf(' ');
+            if (space > 0) {
+                method = route.substring(0, space).toUpperCase(Locale.ROOT);
+                glob = route.substring(space + 1).trim();
+            }
+            Pattern path = Pattern.compile(glob.replace(".", "\\.").replace("*", ".*"));
+            Rule rule = new Rule(spec, method, path);
+            for (String option : splitTopLevel(spec.substring(arrow + 2))) {
+                rule.option(option.trim());
+            }
+            if (rule.errorRate + rule.resetRate + rule.trickleRate > 1) {
+                throw new IllegalArgumentException("Fault rates add up to more than 1: " + spec);
+            }
+            return rule;
+        }
+
+        private void option(String option) {
+            if (option.isEmpty()) {
+                return;
+            }
+            int eq = option.indexOf('=');
+            if (eq < 0) {
+                latency = Latency.parse(option);
+                return;
+            }
+            String key = option.substring(0, eq).trim().toLowerCase(Locale.ROOT);
+            String[] value = option.substring(eq + 1).trim().split(":", 2);
+            double rate = rate(value[0]);
+            switch (key) {
+                case "5xx":
+                    errorRate = rate;
+                    if (value.length > 1) {
+                        errorStatus = Integer.parseInt(value[1].trim());
+                    }
+                    break;
+                case "reset":
+                    resetRate = rate;
+                    break;
+                case "trickle":
+                    trickleRate = rate;
+                    if (value.length > 1) {
+                        trickleIntervalNanos = duration(value[1]);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown fault option: " + option);
+            }
+        }
+
+        boolean matches(String method, String path) {
+            return (this.method == null || this.method.equals(method)) && this.path.matcher(path).matches();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Latency {
+        long sample(ThreadLocalRandom random);
+
+        static Latency parse(String spec) {
+            int open = spec.indexOf('(');
+            if (open < 0 || !spec.endsWith(")")) {
+                throw new IllegalArgumentException("Latency must look like name(args): " + spec);
+            }
+            String name = spec.substring(0, open).trim().toLowerCase(Locale.ROOT);
+            List<String> args = splitTopLevel(spec.substring(open + 1, spec.length() - 1));
+            switch (name) {
+                case "fixed": {
+                    long fixed = duration(arg(args, 0, spec));
+                    return random -> fixed;
+                }
+                case "uniform": {
+                    long min = duration(arg(args, 0, spec));
+                    long max = duration(arg(args, 1, spec));
+                    return random -> min + (long) (random.nextDouble() * (max - min));
+                }
+                case "lognormal": {
+                    long median = duration(arg(args, 0, spec));
+                    double sigma = Double.parseDouble(arg(args, 1, spec));
+                    return random -> (long) (median * Math.exp(sigma * random.nextGaussian()));
+                }
+                case "bimodal": {
+                    long fast = duration(arg(args, 0, spec));
+                    long slow = duration(arg(args, 1, spec));
+                    double slowRate = rate(arg(args, 2, spec));
+                    return random -> random.nextDouble() < slowRate ? slow : fast;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            }
+        }
+    }
+
+    private static String arg(List<String> args, int index, String spec) {
+        if (index >= args.size()) {
+            throw new IllegalArgumentException("Missing argument " + (index + 1) + " in " + spec);
+        }
+        return args.get(index).trim();
+    }
+
+    private static double rate(String value) {
+        double rate = Double.parseDouble(value.trim());
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Rate must be between 0 and 1: " + value);
+        }
+        return rate;
+    }
+
+    /**
+     * Parses 250us, 20ms, 1.5s or a bare number of milliseconds into nanoseconds
+     */
+    static long duration(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        double nanosPerUnit = 1e6;
+        if (v.endsWith("us")) {
+            nanosPerUnit = 1e3;
+            v = v.substring(0, v.length() - 2);
+        } else if (v.endsWith("ms")) {
+            v = v.substring(0, v.length() - 2);
+        } else if (v.endsWith("s")) {
+            nanosPerUnit = 1e9;
+            v = v.substring(0, v.length() - 1);
+        }
+        double amount = Double.parseDouble(v.trim());
+        if (amount < 0) {
+            throw new IllegalArgumentException("Duration must not be negative: " + value);
+        }
+        return (long) (amount * nanosPerUnit);
+    }
+
+    /**
+     * Splits on commas that are not inside parentheses
+     */
+    private static List<String> splitTopLevel(String value) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(value.substring(start));
+        return parts;
+    }
+}
@@ -0,0 +1,584 @@
+package server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.AsciiString;
+import models.SingleUserResponse;
+import models.User;
+import models.UserListResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import soak.JvmSample;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import static config.TestConfig.API_PATH;
+
+/**
+ * Netty handler implementing the ReqRes /api/users contract exercised by ApiTest and the simulations.
+ * Runs entirely on the event loop, so handlers must never block.
+ *
+ * By default writes are echoed like ReqRes does. In stateful mode POST/PUT/PATCH/DELETE are applied
+ * to the UserStore, so later reads see them and write scenarios contend on real records.
+ * With a SyntheticUsers dataset, reads are served from it instead and writes are echoed.
+ * Latency and failures are injected per route by a FaultInjector, which /__faults shows and replaces.
+ * GET /__stats returns the JVM's heap, GC, thread and file descriptor usage as a JvmSample.
+ */
+@ChannelHandler.Sharable
+public class ReqResHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReqResHandler.class);
+
+    static final String USERS_PATH = API_PATH + "/users";
+    private static final int DEFAULT_PER_PAGE = 6;
+    static final int MAX_BULK_IDS = 100;
+    // Pages are encoded on the event loop, so one request must not ask for the whole dataset
+    static final int MAX_PER_PAGE = 100;
+    static final String FAULTS_PATH = "/__faults";
+    static final String STATS_PATH = "/__stats";
+    private static final int TRICKLE_CHUNK = 32;
+
+    private static final AsciiString JSON_UTF8 = AsciiString.cached("application/json; charset=utf-8");
+    private static final AsciiString TEXT_UTF8 = AsciiString.cached("text/plain; charset=utf-8");
+    private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BAD_REQUEST = "{\"error\":\"Bad Request\"}".getBytes(StandardCharsets.US_ASCII);
+
+    // Envelope fragments for responses encoded straight from SyntheticUsers columns
+    private static final byte[] PAGE_FIELD = "{\"page\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PER_PAGE_FIELD = ",\"per_page\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOTAL_FIELD = ",\"total\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOTAL_PAGES_FIELD = ",\"total_pages\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATA_ARRAY_FIELD = ",\"data\":[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATA_FIELD = "{\"data\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUPPORT_FIELD = ",\"support\":".getBytes(StandardCharsets.US_ASCII);
+
+    private static final DateTimeFormatter TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final UserStore store;
+    private final boolean stateful;
+    private final SyntheticUsers synthetic;
+    private final UserListResponse.Support support;
+    private final byte[] supportJson;
+    private final FaultInjector faults;
+    private final IntSupplier connectionsOpen;
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder bytesNotSent = new LongAdder();
+
+    public ReqResHandler(UserStore store) {
+        this(store, false, null);
+    }
+
+    public ReqResHandler(UserStore store, boolean stateful, SyntheticUsers synthetic) {
+        this(store, stateful, synthetic, new FaultInjector("none"));
+    }
+
+    public ReqResHandler(UserStore store, boolean stateful, SyntheticUsers synthetic, FaultInjector faults) {
+        this(store, stateful, synthetic, faults, () -> -1);
+    }
+
+    public ReqResHandler(UserStore store, boolean stateful, SyntheticUsers synthetic, FaultInjector faults,
+                         IntSupplier connectionsOpen) {
+        this.store = store;
+        this.faults = faults;
+        this.connectionsOpen = connectionsOpen;
+        this.stateful = stateful && synthetic == null;
+        this.synthetic = synthetic;
+        this.support = new UserListResponse.Support();
+        support.setUrl("https://contentcaddy.io?utm_source=reqres&utm_medium=json&utm_campaign=referral");
+        support.setText("Tired of writing endless social media content? Let Content Caddy generate it for you.");
+        try {
+            this.supportJson = mapper.writeValueAsBytes(support);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode support block", e);
+        }
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
+        QueryStringDecoder uri = new QueryStringDecoder(request.uri());
+        String path = uri.path();
+        HttpMethod method = request.method();
+        boolean keepAlive = HttpUtil.isKeepAlive(request);
+        if (path.equals(FAULTS_PATH)) {
+            send(ctx, keepAlive, faultsAdmin(request));
+            return;
+        }
+        if (path.equals(STATS_PATH)) {
+            send(ctx, keepAlive, HttpMethod.GET.equals(method)
+                ? json(HttpResponseStatus.OK, mapper.writeValueAsBytes(JvmSample.current(connectionsOpen.getAsInt())))
+                : empty(HttpResponseStatus.METHOD_NOT_ALLOWED));
+            return;
+        }
+
+        FaultInjector.Decision fault = faults.decide(method.name(),
+            path.startsWith(API_PATH) ? path.substring(API_PATH.length()) : path, delayParamNanos(uri.parameters()));
+        FullHttpResponse response;
+        if (fault.kind == FaultInjector.Kind.RESET) {
+            response = null;
+        } else if (fault.kind == FaultInjector.Kind.ERROR) {
+            // Failed before the request was processed, so writes are not applied
+            HttpResponseStatus status = HttpResponseStatus.valueOf(fault.status);
+            response = json(status, ("{\"error\":\"" + status.reasonPhrase() + "\"}").getBytes(StandardCharsets.US_ASCII));
+        } else {
+            response = route(ctx, request, uri, method, path);
+        }
+        if (fault.delayNanos > 0) {
+            // Delayed on the channel's event loop timer, so slow responses do not block other requests
+            ctx.executor().schedule(() -> deliver(ctx, keepAlive, response, fault), fault.delayNanos, TimeUnit.NANOSECONDS);
+        } else {
+            deliver(ctx, keepAlive, response, fault);
+        }
+    }
+
+    private FullHttpResponse route(ChannelHandlerContext ctx, FullHttpRequest request, QueryStringDecoder uri,
+                                   HttpMethod method, String path) throws IOException {
+        if (path.equals(USERS_PATH) || path.equals(USERS_PATH + "/")) {
+            if (HttpMethod.GET.equals(method)) {
+                return listUsers(ctx, uri.parameters());
+            } else if (HttpMethod.POST.equals(method)) {
+                return writeUser(ctx, request, -1, HttpResponseStatus.CREATED, "createdAt");
+            }
+            return empty(HttpResponseStatus.METHOD_NOT_ALLOWED);
+        } else if (path.startsWith(USERS_PATH + "/")) {
+            String rawId = path.substring(USERS_PATH.length() + 1);
+            if (HttpMethod.GET.equals(method)) {
+                return getUser(ctx, request, rawId);
+            } else if (HttpMethod.PUT.equals(method) || HttpMethod.PATCH.equals(method)) {
+                return writeUser(ctx, request, parseId(rawId), HttpResponseStatus.OK, "updatedAt");
+            } else if (HttpMethod.DELETE.equals(method)) {
+                if (stateful) {
+                    store.delete(parseId(rawId));
+                }
+                // ReqRes answers 204 for any ID, existing or not
+                return empty(HttpResponseStatus.NO_CONTENT);
+            }
+            return empty(HttpResponseStatus.METHOD_NOT_ALLOWED);
+        }
+        return json(HttpResponseStatus.NOT_FOUND, EMPTY_OBJECT);
+    }
+
+    /**
+     * ReqRes-style ?delay=seconds on any route, added to the profile's latency
+     */
+    private static long delayParamNanos(Map<String, List<String>> params) {
+        List<String> values = params.get("delay");
+        if (values == null || values.isEmpty()) {
+            return 0;
+        }
+        try {
+            double seconds = Double.parseDouble(values.get(0).trim());
+            return seconds > 0 ? (long) Math.min(seconds * 1e9, FaultInjector.MAX_DELAY_NANOS) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void deliver(ChannelHandlerContext ctx, boolean keepAlive, FullHttpResponse response,
+                                FaultInjector.Decision fault) {
+        if (fault.kind == FaultInjector.Kind.RESET) {
+            // Linger 0 makes the close send RST instead of FIN
+            ctx.channel().config().setOption(ChannelOption.SO_LINGER, 0);
+            ctx.close();
+        } else if (fault.kind == FaultInjector.Kind.TRICKLE && response.content().isReadable()) {
+            HttpResponse head = new DefaultHttpResponse(response.protocolVersion(), response.status(), response.headers());
+            if (keepAlive) {
+                head.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+            }
+            ctx.writeAndFlush(head, ctx.voidPromise());
+            trickle(ctx, keepAlive, response.content(), fault.trickleIntervalNanos);
+        } else {
+            send(ctx, keepAlive, response);
+        }
+    }
+
+    /**
+     * Writes the body TRICKLE_CHUNK bytes at a time, one chunk per interval
+     */
+    private static void trickle(ChannelHandlerContext ctx, boolean keepAlive, ByteBuf body, long intervalNanos) {
+        if (!ctx.channel().isActive()) {
+            body.release();
+            return;
+        }
+        ByteBuf chunk = body.readRetainedSlice(Math.min(TRICKLE_CHUNK, body.readableBytes()));
+        if (body.isReadable()) {
+            ctx.writeAndFlush(new DefaultHttpContent(chunk), ctx.voidPromise());
+            ctx.executor().schedule(() -> trickle(ctx, keepAlive, body, intervalNanos), intervalNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        body.release();
+        if (keepAlive) {
+            ctx.writeAndFlush(new DefaultLastHttpContent(chunk), ctx.voidPromise());
+        } else {
+            ctx.writeAndFlush(new DefaultLastHttpContent(chunk)).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * GET shows the fault profile and counters, PUT or POST replaces it with the body, DELETE clears it
+     */
+    private FullHttpResponse faultsAdmin(FullHttpRequest request) {
+        HttpMethod method = request.method();
+        if (HttpMethod.PUT.equals(method) || HttpMethod.POST.equals(method)) {
+            String spec = request.content().toString(StandardCharsets.UTF_8);
+            try {
+                faults.set(spec);
+            } catch (IllegalArgumentException e) {
+                return text(HttpResponseStatus.BAD_REQUEST, e.getMessage());
+            }
+            LOG.info("Fault profile set to [{}]", faults.spec());
+        } else if (HttpMethod.DELETE.equals(method)) {
+            faults.set("none");
+            LOG.info("Fault profile cleared");
+        } else if (!HttpMethod.GET.equals(method)) {
+            return empty(HttpResponseStatus.METHOD_NOT_ALLOWED);
+        }
+        return text(HttpResponseStatus.OK, faults.toString());
+    }
+
+    /**
+     * Single user with an ETag of ID and record version; a matching If-None-Match gets 304 without a body
+     */
+    private FullHttpResponse getUser(ChannelHandlerContext ctx, FullHttpRequest request, String rawId) {
+        if (synthetic != null) {
+            int id = parseId(rawId);
+            if (!synthetic.contains(id)) {
+                return json(HttpResponseStatus.NOT_FOUND, EMPTY_OBJECT);
+            }
+            // Synthetic users never change, so the ID alone identifies the representation
+            String etag = "\"" + id + "-s\"";
+            if (notModified(request, etag)) {
+                notModified.increment();
+                return withEtag(empty(HttpResponseStatus.NOT_MODIFIED), etag);
+            }
+            ByteBuf buf = ctx.alloc().buffer(256);
+            buf.writeBytes(DATA_FIELD);
+            synthetic.writeUser(buf, id);
+            buf.writeBytes(SUPPORT_FIELD).writeBytes(supportJson).writeByte('}');
+            return withEtag(response(HttpResponseStatus.OK, buf), etag);
+        }
+        UserStore.Record record = store.get(parseId(rawId));
+        if (record == null) {
+            return json(HttpResponseStatus.NOT_FOUND, EMPTY_OBJECT);
+        }
+        // Each record version is encoded once and then served as is
+        byte[] body = record.encoded(this::encodeSingleUser);
+        String etag = "\"" + record.user().getId() + "-" + record.version() + "\"";
+        if (notModified(request, etag)) {
+            notModified.increment();
+            bytesNotSent.add(body.length);
+            return withEtag(empty(HttpResponseStatus.NOT_MODIFIED), etag);
+        }
+        return withEtag(json(HttpResponseStatus.OK, body), etag);
+    }
+
+    private static boolean notModified(FullHttpRequest request, String etag) {
+        String header = request.headers().get(HttpHeaderNames.IF_NONE_MATCH);
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                // If-None-Match uses weak comparison
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static FullHttpResponse withEtag(FullHttpResponse response, String etag) {
+        response.headers().set(HttpHeaderNames.ETAG, etag);
+        return response;
+    }
+
+    /**
+     * GETs answered with 304 Not Modified
+     */
+    public long notModifiedCount() {
+        return notModified.sum();
+    }
+
+    /**
+     * Body bytes that 304 answers did not have to send (store-backed users only)
+     */
+    public long bytesNotSent() {
+        return bytesNotSent.sum();
+    }
+
+    private byte[] encodeSingleUser(User user) {
+        SingleUserResponse response = new SingleUserResponse();
+        response.setData(user);
+        response.setSupport(support);
+        try {
+            return mapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode user " + user.getId(), e);
+        }
+    }
+
+    private FullHttpResponse listUsers(ChannelHandlerContext ctx, Map<String, List<String>> params) throws IOException {
+        List<String> ids = params.get("ids");
+        if (ids != null && !ids.isEmpty()) {
+            return bulkUsers(ctx, ids);
+        }
+        int page = intParam(params, "page", 1);
+        int perPage = intParam(params, "per_page", DEFAULT_PER_PAGE);
+        if (page == 0) {
+            page = 1;
+        }
+        if (perPage < 1) {
+            perPage = DEFAULT_PER_PAGE;
+        }
+        perPage = Math.min(perPage, MAX_PER_PAGE);
+        if (synthetic != null) {
+            return syntheticPage(ctx, page, perPage);
+        }
+        int total = store.size();
+
+        UserListResponse body = new UserListResponse();
+        body.setPage(page);
+        body.setPerPage(perPage);
+        body.setTotal(total);
+        body.setTotalPages((total + perPage - 1) / perPage);
+        body.setData(store.page(page, perPage));
+        body.setSupport(support);
+        return encode(ctx, HttpResponseStatus.OK, body);
+    }
+
+    /**
+     * Stand-in extension, not part of ReqRes: ids=1,2,3 returns the existing users among the IDs,
+     * in request order without duplicates, as a single page
+     */
+    private FullHttpResponse bulkUsers(ChannelHandlerContext ctx, List<String> values) throws IOException {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String value : values) {
+            for (String raw : value.split(",")) {
+                int id = parseId(raw.trim());
+                if (id > 0) {
+                    ids.add(id);
+                }
+            }
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            return json(HttpResponseStatus.BAD_REQUEST, BAD_REQUEST);
+        }
+        List<User> found = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            User user = synthetic != null
+                ? (synthetic.contains(id) ? synthetic.user(id) : null)
+                : store.find(id);
+            if (user != null) {
+                found.add(user);
+            }
+        }
+        UserListResponse body = new UserListResponse();
+        body.setPage(1);
+        body.setPerPage(Math.max(1, ids.size()));
+        body.setTotal(found.size());
+        body.setTotalPages(1);
+        body.setData(found);
+        body.setSupport(support);
+        return encode(ctx, HttpResponseStatus.OK, body);
+    }
+
+    /**
+     * Encodes the page envelope and rows directly into the response buffer; cost depends only on per_page
+     */
+    private FullHttpResponse syntheticPage(ChannelHandlerContext ctx, int page, int perPage) {
+        int total = synthetic.size();
+        long fromId = (long) (page - 1) * perPage + 1;
+        int rows = page < 1 || fromId > total ? 0 : (int) Math.min(perPage, total - fromId + 1);
+        ByteBuf buf = ctx.alloc().buffer(128 + rows * 160 + supportJson.length);
+        buf.writeBytes(PAGE_FIELD);
+        SyntheticUsers.writeDecimal(buf, page);
+        buf.writeBytes(PER_PAGE_FIELD);
+        SyntheticUsers.writeDecimal(buf, perPage);
+        buf.writeBytes(TOTAL_FIELD);
+        SyntheticUsers.writeDecimal(buf, total);
+        buf.writeBytes(TOTAL_PAGES_FIELD);
+        SyntheticUsers.writeDecimal(buf, ((long) total + perPage - 1) / perPage);
+        buf.writeBytes(DATA_ARRAY_FIELD);
+        if (rows > 0) {
+            synthetic.writeUsers(buf, fromId, rows);
+        }
+        buf.writeByte(']').writeBytes(SUPPORT_FIELD).writeBytes(supportJson).writeByte('}');
+        return response(HttpResponseStatus.OK, buf);
+    }
+
+    /**
+     * Echoes the body with a timestamp as ReqRes does; in stateful mode also creates or updates the user.
+     * The id is -1 for a create.
+     */
+    private FullHttpResponse writeUser(ChannelHandlerContext ctx, FullHttpRequest request, int id,
+                                       HttpResponseStatus status, String timestampField) throws IOException {
+        ObjectNode echo;
+        try {
+            JsonNode parsed = request.content().isReadable()
+                ? mapper.readTree(new ByteBufInputStream(request.content()))
+                : mapper.createObjectNode();
+            if (parsed == null || parsed.isMissingNode()) {
+                parsed = mapper.createObjectNode();
+            }
+            if (!parsed.isObject()) {
+                return json(HttpResponseStatus.BAD_REQUEST, BAD_REQUEST);
+            }
+            echo = (ObjectNode) parsed;
+        } catch (JsonProcessingException e) {
+            return json(HttpResponseStatus.BAD_REQUEST, BAD_REQUEST);
+        }
+        ObjectNode fields = echo;
+        if (!stateful) {
+            if (status == HttpResponseStatus.CREATED) {
+                echo.put("id", Integer.toString(store.size() + 1));
+            }
+        } else if (status == HttpResponseStatus.CREATED) {
+            echo.put("id", Integer.toString(store.create(user -> apply(fields, user)).user().getId()));
+        } else if (store.update(id, user -> apply(fields, user)) == null) {
+            return json(HttpResponseStatus.NOT_FOUND, EMPTY_OBJECT);
+        }
+        echo.put(timestampField, TIMESTAMP.format(Instant.now()));
+        return encode(ctx, status, echo);
+    }
+
+    /**
+     * Copies the known user fields present in the body; PUT and PATCH both merge, since
+     * ReqRes clients send partial bodies such as {"name", "job"} with either verb
+     */
+    private static void apply(ObjectNode fields, User user) {
+        if (fields.hasNonNull("email")) {
+            user.setEmail(fields.get("email").asText());
+        }
+        if (fields.hasNonNull("first_name")) {
+            user.setFirstName(fields.get("first_name").asText());
+        }
+        if (fields.hasNonNull("last_name")) {
+            user.setLastName(fields.get("last_name").asText());
+        }
+        if (fields.hasNonNull("avatar")) {
+            user.setAvatar(fields.get("avatar").asText());
+        }
+    }
+
+    private FullHttpResponse encode(ChannelHandlerContext ctx, HttpResponseStatus status, Object body) throws IOException {
+        ByteBuf buf = ctx.alloc().buffer();
+        try (ByteBufOutputStream out = new ByteBufOutputStream(buf)) {
+            mapper.writeValue((OutputStream) out, body);
+        } catch (IOException | RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+        return response(status, buf);
+    }
+
+    private static FullHttpResponse json(HttpResponseStatus status, byte[] body) {
+        return response(status, Unpooled.wrappedBuffer(body));
+    }
+
+    private static FullHttpResponse text(HttpResponseStatus status, String body) {
+        FullHttpResponse response = response(status, Unpooled.copiedBuffer(body + "\n", StandardCharsets.UTF_8));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, TEXT_UTF8);
+        return response;
+    }
+
+    private static FullHttpResponse empty(HttpResponseStatus status) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, Unpooled.EMPTY_BUFFER);
+        response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, 0);
+        return response;
+    }
+
+    private static FullHttpResponse response(HttpResponseStatus status, ByteBuf content) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, content);
+        response.headers()
+            .set(HttpHeaderNames.CONTENT_TYPE, JSON_UTF8)
+            .setInt(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+        return response;
+    }
+
+    private static void send(ChannelHandlerContext ctx, boolean keepAlive, FullHttpResponse response) {
+        if (keepAlive) {
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+            ctx.writeAndFlush(response, ctx.voidPromise());
+        } else {
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * Parses a path ID the way ReqRes does: only plain positive decimal integers are users
+     */
+    static int parseId(String raw) {
+        if (raw.isEmpty() || raw.length() > 9) {
+            return -1;
+        }
+        int id = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    private static int intParam(Map<String, List<String>> params, String name, int defaultValue) {
+        List<String> values = params.get(name);
+        if (values == null || values.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(values.get(0).trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        LOG.warn("Stand-in request failed: {}", cause.toString());
+        ctx.close();
+    }
+}
@@ -0,0 +1,322 @@
+package server;
+
+import config.TestConfig;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.CleartextHttp2ServerUpgradeHandler;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.util.AsciiString;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded NIO stand-in for the ReqRes API, used for offline runs and for load tests
+ * where the target must not be the bottleneck.
+ *
+ * Besides HTTP/1.1 it speaks cleartext HTTP/2 (h2c), both via Upgrade and with prior knowledge;
+ * each stream is converted to a FullHttpRequest for the same ReqResHandler. -Dapi.local.h2c=false
+ * turns that off.
+ *
+ * Enable with -Dapi.target=local (port via -Dapi.local.port), or run standalone:
+ * mvn exec:java -Dexec.mainClass=server.ReqResStandIn -Dexec.classpathScope=test
+ */
+public class ReqResStandIn implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReqResStandIn.class);
+    private static final int MAX_CONTENT_LENGTH = 1024 * 1024;
+    private static final String THREAD_PREFIX = "stand-in-";
+
+    private static ReqResStandIn shared;
+
+    private final String host;
+    private final int port;
+    private final UserStore store;
+    private final boolean stateful = "stateful".equalsIgnoreCase(System.getProperty("api.local.store", "echo"))
+        || System.getProperty("api.local.storeDir") != null;
+    private final FaultInjector faults = FaultInjector.fromSystemProperties();
+    private final boolean h2c = Boolean.parseBoolean(System.getProperty("api.local.h2c", "true"));
+    private final ConnectionCounter connections = new ConnectionCounter();
+    private final boolean syntheticDataset = "synthetic".equalsIgnoreCase(System.getProperty("api.local.dataset", "reqres"));
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private Channel serverChannel;
+    private ReqResHandler handler;
+
+    public ReqResStandIn(String host, int port, UserStore store) {
+        this.host = host;
+        this.port = port;
+        this.store = store;
+    }
+
+    public ReqResStandIn(int port) {
+        this(TestConfig.LOCAL_HOST, port, defaultStore());
+    }
+
+    /**
+     * Persistent store when api.local.storeDir is set, otherwise the in-memory ReqRes fixtures
+     */
+    private static UserStore defaultStore() {
+        String dir = System.getProperty("api.local.storeDir");
+        if (dir == null) {
+            return UserStore.seeded();
+        }
+        try {
+            return UserStore.open(Paths.get(dir));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open user store in " + dir, e);
+        }
+    }
+
+    /**
+     * Starts the process-wide stand-in when the local target is selected; no-op otherwise.
+     */
+    public static synchronized void startIfLocal() {
+        if (!TestConfig.LOCAL_TARGET || shared != null) {
+            return;
+        }
+        shared = new ReqResStandIn(TestConfig.LOCAL_PORT).start();
+    }
+
+    /**
+     * Store of the process-wide stand-in, or null when it is not running
+     */
+    public static synchronized UserStore sharedStore() {
+        return shared == null ? null : shared.store;
+    }
+
+    /**
+     * Fault profile of the process-wide stand-in, or null when it is not running
+     */
+    public static synchronized FaultInjector sharedFaults() {
+        return shared == null ? null : shared.faults;
+    }
+
+    /**
+     * CPU time used so far by the live event loop threads of any stand-in in this JVM, so that
+     * in-process load generators can tell their own CPU from the target's
+     */
+    public static long cpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long nanos = 0;
+        for (ThreadInfo thread : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (thread != null && thread.getThreadName().startsWith(THREAD_PREFIX)) {
+                nanos += Math.max(0, threads.getThreadCpuTime(thread.getThreadId()));
+            }
+        }
+        return nanos;
+    }
+
+    public static synchronized void stopShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    public synchronized ReqResStandIn start() {
+        if (serverChannel != null) {
+            return this;
+        }
+        bossGroup = new NioEventLoopGroup(1, new DefaultThreadFactory(THREAD_PREFIX + "boss"));
+        workerGroup = new NioEventLoopGroup(Integer.getInteger("api.local.workers", 0),
+            new DefaultThreadFactory(THREAD_PREFIX + "worker"));
+        handler = new ReqResHandler(store, stateful, syntheticDataset ? generateDataset() : null, faults,
+            connections.open::get);
+
+        ServerBootstrap bootstrap = new ServerBootstrap()
+            .group(bossGroup, workerGroup)
+            .channel(NioServerSocketChannel.class)
+            .option(ChannelOption.SO_BACKLOG, 4096)
+            .option(ChannelOption.SO_REUSEADDR, true)
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childOption(ChannelOption.SO_KEEPALIVE, true)
+            .childHandler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel ch) {
+                    ChannelPipeline pipeline = ch.pipeline();
+                    pipeline.addLast("connections", connections);
+                    HttpServerCodec codec = new HttpServerCodec();
+                    if (h2c) {
+                        pipeline.addLast("h2c", new CleartextHttp2ServerUpgradeHandler(codec,
+                            new HttpServerUpgradeHandler(codec, protocol ->
+                                AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)
+                                    ? new Http2ServerUpgradeCodec(Http2FrameCodecBuilder.forServer().build(),
+                                        new Http2MultiplexHandler(streamInitializer, streamInitializer))
+                                    : null, MAX_CONTENT_LENGTH),
+                            priorKnowledgeInitializer));
+                    } else {
+                        pipeline.addLast("codec", codec);
+                    }
+                    pipeline.addLast("aggregator", new HttpObjectAggregator(MAX_CONTENT_LENGTH));
+                    pipeline.addLast("handler", handler);
+                }
+            });
+
+        try {
+            serverChannel = bootstrap.bind(new InetSocketAddress(host, port)).sync().channel();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted while binding stand-in to " + host + ":" + port, e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        LOG.info("ReqRes stand-in listening on http://{}:{} ({} store, {}faults [{}])", host, port(),
+            stateful ? "stateful" : "echo", h2c ? "h2c, " : "", faults.spec());
+        return this;
+    }
+
+    /**
+     * Pipeline of one HTTP/2 stream: frames to a FullHttpRequest and the response back to frames
+     */
+    private final ChannelInitializer<Http2StreamChannel> streamInitializer = new ChannelInitializer<Http2StreamChannel>() {
+        @Override
+        protected void initChannel(Http2StreamChannel ch) {
+            ch.pipeline().addLast(
+                new Http2StreamFrameToHttpObjectCodec(true),
+                new HttpObjectAggregator(MAX_CONTENT_LENGTH),
+                handler);
+        }
+    };
+
+    /**
+     * Replaces the HTTP/1.1 handlers once a connection opens with the HTTP/2 preface
+     */
+    private final ChannelInitializer<SocketChannel> priorKnowledgeInitializer = new ChannelInitializer<SocketChannel>() {
+        @Override
+        protected void initChannel(SocketChannel ch) {
+            ChannelPipeline pipeline = ch.pipeline();
+            pipeline.remove("aggregator");
+            pipeline.remove("handler");
+            pipeline.addLast(Http2FrameCodecBuilder.forServer().build(), new Http2MultiplexHandler(streamInitializer));
+        }
+    };
+
+    private static SyntheticUsers generateDataset() {
+        int users = Integer.getInteger("api.local.users", 10_000_000);
+        long start = System.nanoTime();
+        SyntheticUsers dataset = SyntheticUsers.generate(users, Long.getLong("api.local.seed", 42L));
+        LOG.info("Generated {} synthetic users ({} MB off-heap) in {} ms", users,
+            dataset.offHeapBytes() >> 20, (System.nanoTime() - start) / 1_000_000);
+        return dataset;
+    }
+
+    /**
+     * Actual bound port, useful when started with port 0
+     */
+    public int port() {
+        return serverChannel == null ? port : ((InetSocketAddress) serverChannel.localAddress()).getPort();
+    }
+
+    public UserStore store() {
+        return store;
+    }
+
+    /**
+     * Latency and fault profile, replaceable while the stand-in serves requests
+     */
+    public FaultInjector faults() {
+        return faults;
+    }
+
+    /**
+     * Connections accepted since start
+     */
+    public long connectionsOpened() {
+        return connections.opened.sum();
+    }
+
+    /**
+     * Connections open right now; an HTTP/2 connection counts once however many streams it carries
+     */
+    public int connectionsOpen() {
+        return connections.open.get();
+    }
+
+    public String baseUrl() {
+        return "http://" + host + ":" + port();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (serverChannel != null) {
+            serverChannel.close().syncUninterruptibly();
+            serverChannel = null;
+            LOG.info("User store: {}", store.stats());
+            LOG.info("Conditional GETs: {} answered 304 Not Modified, {} body bytes not sent",
+                handler.notModifiedCount(), handler.bytesNotSent());
+            LOG.info("Injected faults: {}", faults);
+            LOG.info("Connections: {} accepted, at most {} open at once", connections.opened.sum(), connections.peak.get());
+        }
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+            // In-flight writes must finish before a persistent store takes its final snapshot
+            workerGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS).syncUninterruptibly();
+            bossGroup = null;
+            workerGroup = null;
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to flush user store", e);
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private static final class ConnectionCounter extends ChannelInboundHandlerAdapter {
+        final LongAdder opened = new LongAdder();
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            opened.increment();
+            peak.accumulateAndGet(open.incrementAndGet(), Math::max);
+            ctx.fireChannelActive();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            open.decrementAndGet();
+            ctx.fireChannelInactive();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : TestConfig.LOCAL_PORT;
+        ReqResStandIn server = new ReqResStandIn(port).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "stand-in-shutdown"));
+        server.serverChannel.closeFuture().sync();
+    }
+}
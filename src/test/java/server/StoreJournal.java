@@ -0,0 +1,164 @@
+package server;
+
+import feeders.MappedSegments;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped, append-only log of store mutations for one generation.
+ *
+ * The file is mapped in fixed-size chunks as it grows; an entry never spans two chunks.
+ * Entries are 8-byte aligned: int payload length, int CRC32 of the payload, then the payload
+ * (op, id, version and, for upserts, the UserCodec bytes). A zero length marks the end of the log,
+ * and a length of -1 pads the rest of a chunk. Replay stops at the first entry whose CRC does
+ * not match, which is how a write torn by a crash is discarded.
+ *
+ * Writes land in the page cache, so they survive a JVM crash but not a power loss.
+ */
+final class StoreJournal implements Closeable {
+
+    static final byte UPSERT = 1;
+    static final byte DELETE = 2;
+
+    private static final int MAGIC = 0x554A524E;
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_HEADER_BYTES = 8;
+    private static final int PADDING = -1;
+
+    private final Path file;
+    private final long generation;
+    private final int chunkSize;
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+    private long entries;
+
+    private StoreJournal(Path file, long generation, int chunkSize) throws IOException {
+        if (Integer.bitCount(chunkSize) != 1 || chunkSize < 4096 || chunkSize > (1 << 30)) {
+            // A power of two up to 1GB never straddles a MappedSegments segment on replay
+            throw new IllegalArgumentException("Journal chunk size must be a power of two in [4KB, 1GB]: " + chunkSize);
+        }
+        this.file = file;
+        this.generation = generation;
+        this.chunkSize = chunkSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        this.chunk = channel.map(FileChannel.MapMode.READ_WRITE, 0, chunkSize);
+        chunk.putInt(MAGIC).putInt(FORMAT).putInt(chunkSize).putInt(0);
+    }
+
+    static StoreJournal create(Path dir, long generation, int chunkSize) throws IOException {
+        Files.createDirectories(dir);
+        return new StoreJournal(fileFor(dir, generation), generation, chunkSize);
+    }
+
+    static Path fileFor(Path dir, long generation) {
+        return dir.resolve(String.format(Locale.ROOT, "journal-%08d.log", generation));
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    synchronized long entries() {
+        return entries;
+    }
+
+    /**
+     * Appends one mutation; user is null for deletes. Returns the number of entries in this generation.
+     */
+    synchronized long append(byte op, int id, long version, byte[] user) throws IOException {
+        int payload = 1 + Integer.BYTES + Long.BYTES + (user == null ? 0 : user.length);
+        int size = align8(ENTRY_HEADER_BYTES + payload);
+        if (size > chunkSize - HEADER_BYTES) {
+            throw new IOException("Journal entry of " + size + " bytes does not fit a " + chunkSize + " byte chunk");
+        }
+        if (chunk.remaining() < size) {
+            if (chunk.remaining() >= Integer.BYTES) {
+                chunk.putInt(PADDING);
+            }
+            chunkStart += chunkSize;
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, chunkSize);
+        }
+        int start = chunk.position();
+        chunk.position(start + ENTRY_HEADER_BYTES);
+        chunk.put(op).putInt(id).putLong(version);
+        if (user != null) {
+            chunk.put(user);
+        }
+        crc.reset();
+        crc.update(chunk.duplicate().position(start + ENTRY_HEADER_BYTES).limit(start + ENTRY_HEADER_BYTES + payload));
+        // Length goes last, so a reader never sees a length without its payload
+        chunk.putInt(start + Integer.BYTES, (int) crc.getValue());
+        chunk.putInt(start, payload);
+        chunk.position(start + size);
+        return ++entries;
+    }
+
+    /**
+     * Calls the visitor for every intact entry of a journal file; returns the number of entries
+     */
+    static long replay(Path file, Visitor visitor) throws IOException {
+        try (MappedSegments data = MappedSegments.readOnly(file)) {
+            if (data.size() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != FORMAT) {
+                throw new IOException("Not a store journal: " + file);
+            }
+            long chunkSize = data.getInt(8);
+            CRC32 crc = new CRC32();
+            long position = HEADER_BYTES;
+            long count = 0;
+            while (position + ENTRY_HEADER_BYTES <= data.size()) {
+                int length = data.getInt(position);
+                if (length == PADDING) {
+                    position = (position / chunkSize + 1) * chunkSize;
+                    continue;
+                }
+                if (length <= 0 || position + ENTRY_HEADER_BYTES + length > data.size()) {
+                    break;
+                }
+                byte[] payload = data.bytes(position + ENTRY_HEADER_BYTES, position + ENTRY_HEADER_BYTES + length);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != data.getInt(position + Integer.BYTES)) {
+                    break;
+                }
+                ByteBuffer entry = ByteBuffer.wrap(payload);
+                visitor.visit(entry.get(), entry.getInt(), entry.getLong(), entry.hasRemaining() ? entry : null);
+                count++;
+                position += align8(ENTRY_HEADER_BYTES + length);
+            }
+            return count;
+        }
+    }
+
+    private static int align8(int size) {
+        return (size + 7) & ~7;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    interface Visitor {
+        /**
+         * user holds the UserCodec bytes for upserts and is null for deletes
+         */
+        void visit(byte op, int id, long version, ByteBuffer user);
+    }
+}
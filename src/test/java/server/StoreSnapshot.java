@@ -0,0 +1,294 @@
+package server;
+
+import feeders.MappedSegments;
+import models.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Compact, memory-mapped image of every user record at the start of a journal generation.
+ *
+ * Layout: a 64-byte header, then sorted ID (int), version (long) and payload offset (long) columns,
+ * then the UserCodec payloads. Opening only maps the file, so startup cost does not depend on the
+ * number of users; lookups binary-search the ID column and decode one payload.
+ *
+ * Snapshots are written to a temporary file, forced to disk and renamed, so a snapshot that
+ * exists under its final name is always complete.
+ */
+final class StoreSnapshot implements Closeable {
+
+    private static final int MAGIC = 0x55534E50;
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 64;
+
+    private final Path file;
+    private final MappedSegments data;
+    private final long count;
+    private final long generation;
+    private final int nextId;
+    private final long idsPos;
+    private final long versionsPos;
+    private final long offsetsPos;
+
+    private StoreSnapshot(Path file, MappedSegments data) throws IOException {
+        this.file = file;
+        this.data = data;
+        if (data.size() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != FORMAT) {
+            throw new IOException("Not a user store snapshot: " + file);
+        }
+        this.count = data.getLong(8);
+        this.generation = data.getLong(16);
+        this.nextId = data.getInt(24);
+        this.idsPos = data.getLong(32);
+        this.versionsPos = data.getLong(40);
+        this.offsetsPos = data.getLong(48);
+    }
+
+    static StoreSnapshot open(Path file) throws IOException {
+        return new StoreSnapshot(file, MappedSegments.readOnly(file));
+    }
+
+    static Path fileFor(Path dir, long generation) {
+        return dir.resolve(String.format(Locale.ROOT, "snapshot-%08d.snap", generation));
+    }
+
+    Path file() {
+        return file;
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * Journal generation this snapshot starts; older journals are fully contained in it
+     */
+    long generation() {
+        return generation;
+    }
+
+    int nextId() {
+        return nextId;
+    }
+
+    int idAt(long index) {
+        return data.getInt(idsPos + index * Integer.BYTES);
+    }
+
+    long versionAt(long index) {
+        return data.getLong(versionsPos + index * Long.BYTES);
+    }
+
+    User userAt(long index) {
+        long from = data.getLong(offsetsPos + index * Long.BYTES);
+        long to = data.getLong(offsetsPos + (index + 1) * Long.BYTES);
+        return UserCodec.decode(idAt(index), ByteBuffer.wrap(data.bytes(from, to)));
+    }
+
+    /**
+     * Index of the first ID greater than or equal to id, or count when there is none
+     */
+    long lowerBound(int id) {
+        long lo = 0;
+        long hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (idAt(mid) < id) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Index of the ID, or -1 when the snapshot does not contain it
+     */
+    long indexOf(int id) {
+        long index = lowerBound(id);
+        return index < count && idAt(index) == id ? index : -1;
+    }
+
+    /**
+     * Writes records, which must come in ascending ID order, as the snapshot for a generation.
+     * maxCount bounds the number of records and sizes the columns; the actual count is stored.
+     */
+    static StoreSnapshot write(Path dir, long generation, int nextId, long maxCount,
+                               Iterator<UserStore.Record> records) throws IOException {
+        Files.createDirectories(dir);
+        Path target = fileFor(dir, generation);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long idsPos = HEADER_BYTES;
+        long versionsPos = align8(idsPos + maxCount * Integer.BYTES);
+        long offsetsPos = versionsPos + maxCount * Long.BYTES;
+        long heapPos = offsetsPos + (maxCount + 1) * Long.BYTES;
+
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            ColumnWriter ids = new ColumnWriter(channel, idsPos);
+            ColumnWriter versions = new ColumnWriter(channel, versionsPos);
+            ColumnWriter offsets = new ColumnWriter(channel, offsetsPos);
+            ColumnWriter heap = new ColumnWriter(channel, heapPos);
+            int lastId = Integer.MIN_VALUE;
+            while (records.hasNext()) {
+                UserStore.Record record = records.next();
+                int id = record.user().getId();
+                if (count == maxCount || id <= lastId) {
+                    throw new IllegalArgumentException("Snapshot records exceed " + maxCount + " or are not in ID order at " + id);
+                }
+                ids.putInt(id);
+                versions.putLong(record.version());
+                offsets.putLong(heap.position());
+                heap.put(UserCodec.encode(record.user()));
+                lastId = id;
+                count++;
+            }
+            offsets.putLong(heap.position());
+            ids.flush();
+            versions.flush();
+            offsets.flush();
+            heap.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC).putInt(FORMAT).putLong(count).putLong(generation).putInt(nextId).putInt(0)
+                .putLong(idsPos).putLong(versionsPos).putLong(offsetsPos).putLong(heapPos);
+            header.clear();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(target);
+    }
+
+    private static long align8(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    /**
+     * Ascending-ID iterator over the snapshot records
+     */
+    Iterator<UserStore.Record> records(long fromIndex) {
+        return new Iterator<UserStore.Record>() {
+            private long index = fromIndex;
+
+            @Override
+            public boolean hasNext() {
+                return index < count;
+            }
+
+            @Override
+            public UserStore.Record next() {
+                if (index >= count) {
+                    throw new NoSuchElementException();
+                }
+                UserStore.Record record = new UserStore.Record(userAt(index), versionAt(index));
+                index++;
+                return record;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        data.close();
+    }
+
+    /**
+     * Sequential writer for one column region, flushed with positional writes
+     */
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private long position;
+
+        ColumnWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        long position() {
+            return position + buffer.position();
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    position += channel.write(wrapped, position);
+                }
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes a store fixture of the given size (ReqRes users first, then SyntheticUsers rows):
+     * mvn exec:java -Dexec.mainClass=server.StoreSnapshot -Dexec.classpathScope=test -Dexec.args="target/store 10000000"
+     */
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "target/store");
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        if (Files.exists(fileFor(dir, 0)) || Files.exists(StoreJournal.fileFor(dir, 1))) {
+            throw new IllegalStateException("Store files already exist in " + dir + "; delete the directory first");
+        }
+        long start = System.nanoTime();
+        SyntheticUsers users = SyntheticUsers.generate(count, Long.getLong("api.local.seed", 42L));
+        Iterator<UserStore.Record> records = new Iterator<UserStore.Record>() {
+            private int id = 1;
+
+            @Override
+            public boolean hasNext() {
+                return id <= count;
+            }
+
+            @Override
+            public UserStore.Record next() {
+                return new UserStore.Record(users.user(id++), 1);
+            }
+        };
+        try (StoreSnapshot snapshot = write(dir, 0, count, count, records)) {
+            System.out.printf("Wrote %d users to %s (%d MB) in %d ms%n", snapshot.count(), snapshot.file(),
+                Files.size(snapshot.file()) >> 20, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
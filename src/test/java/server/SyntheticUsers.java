@@ -0,0 +1,228 @@
+package server;
+
+import io.netty.buffer.ByteBuf;
+import models.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read-only synthetic user dataset for pagination tests at scale, e.g. tens of millions of users.
+ *
+ * Each user costs four bytes of off-heap memory: first and last names are dictionary codes in two
+ * direct short columns. The remaining fields are derived rather than stored: the ID is the row
+ * number + 1, the email is first.last{id}@reqres.in and the avatar cycles through the ReqRes faces.
+ * The first twelve rows are the real ReqRes users, so small pages look exactly like the public API.
+ *
+ * Rows are written as JSON straight from the columns into the response buffer, using pre-encoded
+ * name bytes, so serving a page costs O(per_page) regardless of the page number or dataset size.
+ */
+public final class SyntheticUsers {
+
+    private static final String[] FIRST_NAMES = {
+        "Alice", "Bruno", "Chloe", "Diego", "Elena", "Felix", "Grace", "Hugo", "Iris", "Jonas",
+        "Kira", "Liam", "Maya", "Noah", "Olga", "Pablo", "Quinn", "Rosa", "Sven", "Tara",
+        "Umar", "Vera", "Wade", "Xena", "Yusuf", "Zoe", "Anton", "Bella", "Cyril", "Dana"
+    };
+    private static final String[] LAST_NAMES = {
+        "Abbott", "Baker", "Carter", "Dalton", "Ellis", "Fischer", "Garcia", "Hansen", "Ivanov", "Jensen",
+        "Keller", "Lopez", "Meyer", "Novak", "Olsen", "Petrov", "Quist", "Rossi", "Schulz", "Tanaka",
+        "Ueda", "Vargas", "Weber", "Xu", "Young", "Zimmer", "Andersen", "Brooks", "Costa", "Dubois"
+    };
+
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] EMAIL = ascii(",\"email\":\"");
+    private static final byte[] FIRST_NAME = ascii("\",\"first_name\":\"");
+    private static final byte[] LAST_NAME = ascii("\",\"last_name\":\"");
+    private static final byte[] AVATAR = ascii("\",\"avatar\":\"https://reqres.in/img/faces/");
+    private static final byte[] AVATAR_END = ascii("-image.jpg\"}");
+    private static final byte[] EMAIL_DOMAIN = ascii("@reqres.in");
+    private static final int FACES = 12;
+
+    private final int size;
+    private final int seedRows;
+    private final ByteBuffer firstCodes;
+    private final ByteBuffer lastCodes;
+    private final byte[][] firstNames;
+    private final byte[][] lastNames;
+    private final byte[][] firstEmails;
+    private final byte[][] lastEmails;
+
+    private SyntheticUsers(int size, List<User> seed, long randomSeed) {
+        if (size < 0 || size > Integer.MAX_VALUE / Short.BYTES) {
+            throw new IllegalArgumentException("Dataset size out of range: " + size);
+        }
+        Map<String, Short> firstDictionary = new LinkedHashMap<>();
+        Map<String, Short> lastDictionary = new LinkedHashMap<>();
+        seed.forEach(user -> {
+            code(firstDictionary, user.getFirstName());
+            code(lastDictionary, user.getLastName());
+        });
+        int firstSynthetic = firstDictionary.size();
+        int lastSynthetic = lastDictionary.size();
+        for (String name : FIRST_NAMES) {
+            code(firstDictionary, name);
+        }
+        for (String name : LAST_NAMES) {
+            code(lastDictionary, name);
+        }
+
+        this.size = size;
+        this.seedRows = Math.min(size, seed.size());
+        this.firstNames = encode(firstDictionary, false);
+        this.lastNames = encode(lastDictionary, false);
+        this.firstEmails = encode(firstDictionary, true);
+        this.lastEmails = encode(lastDictionary, true);
+        this.firstCodes = ByteBuffer.allocateDirect(size * Short.BYTES);
+        this.lastCodes = ByteBuffer.allocateDirect(size * Short.BYTES);
+
+        for (int row = 0; row < seedRows; row++) {
+            firstCodes.putShort(row * Short.BYTES, firstDictionary.get(seed.get(row).getFirstName()));
+            lastCodes.putShort(row * Short.BYTES, lastDictionary.get(seed.get(row).getLastName()));
+        }
+        int firstRange = firstDictionary.size() - firstSynthetic;
+        int lastRange = lastDictionary.size() - lastSynthetic;
+        for (int row = seedRows; row < size; row++) {
+            // Stateless hash of the row, so the same size and seed always give the same users
+            long hash = mix(randomSeed + row);
+            firstCodes.putShort(row * Short.BYTES, (short) (firstSynthetic + (int) ((hash >>> 1) % firstRange)));
+            lastCodes.putShort(row * Short.BYTES, (short) (lastSynthetic + (int) ((hash >>> 33) % lastRange)));
+        }
+    }
+
+    /**
+     * Dataset of the given size whose first rows are the ReqRes fixture users
+     */
+    public static SyntheticUsers generate(int size, long randomSeed) {
+        UserStore fixtures = UserStore.seeded();
+        return new SyntheticUsers(size, fixtures.page(1, fixtures.size()), randomSeed);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return id >= 1 && id <= size;
+    }
+
+    /**
+     * Off-heap bytes held by the columns
+     */
+    public long offHeapBytes() {
+        return (long) firstCodes.capacity() + lastCodes.capacity();
+    }
+
+    /**
+     * Materializes one row as a User, e.g. to seed a persistent store
+     */
+    public User user(int id) {
+        int row = id - 1;
+        short first = firstCodes.getShort(row * Short.BYTES);
+        short last = lastCodes.getShort(row * Short.BYTES);
+        String email = new String(firstEmails[first], StandardCharsets.US_ASCII) + "."
+            + new String(lastEmails[last], StandardCharsets.US_ASCII) + (row >= seedRows ? String.valueOf(id) : "") + "@reqres.in";
+        User user = new User(email, new String(firstNames[first], StandardCharsets.US_ASCII),
+            new String(lastNames[last], StandardCharsets.US_ASCII));
+        user.setId(id);
+        user.setAvatar("https://reqres.in/img/faces/" + (row % FACES + 1) + "-image.jpg");
+        return user;
+    }
+
+    /**
+     * Writes users fromId..fromId+count-1 as comma-separated JSON objects; rows past the end are skipped
+     */
+    public void writeUsers(ByteBuf out, long fromId, int count) {
+        long from = Math.max(1, fromId);
+        long last = Math.min(size, fromId + count - 1);
+        for (long id = from; id <= last; id++) {
+            if (id > from) {
+                out.writeByte(',');
+            }
+            writeUser(out, (int) id);
+        }
+    }
+
+    /**
+     * Writes one user as a JSON object
+     */
+    public void writeUser(ByteBuf out, int id) {
+        int row = id - 1;
+        short first = firstCodes.getShort(row * Short.BYTES);
+        short last = lastCodes.getShort(row * Short.BYTES);
+        out.writeBytes(ID);
+        writeDecimal(out, id);
+        out.writeBytes(EMAIL);
+        out.writeBytes(firstEmails[first]).writeByte('.').writeBytes(lastEmails[last]);
+        if (row >= seedRows) {
+            writeDecimal(out, id);
+        }
+        out.writeBytes(EMAIL_DOMAIN);
+        out.writeBytes(FIRST_NAME).writeBytes(firstNames[first]);
+        out.writeBytes(LAST_NAME).writeBytes(lastNames[last]);
+        out.writeBytes(AVATAR);
+        writeDecimal(out, row % FACES + 1);
+        out.writeBytes(AVATAR_END);
+    }
+
+    /**
+     * Appends an integer as ASCII digits without going through a String
+     */
+    static void writeDecimal(ByteBuf out, long value) {
+        if (value < 0) {
+            out.writeByte('-');
+            value = -value;
+        }
+        if (value < 10) {
+            out.writeByte('0' + (int) value);
+            return;
+        }
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        int end = out.writerIndex() + digits;
+        out.ensureWritable(digits);
+        for (int i = end - 1; i >= end - digits; i--) {
+            out.setByte(i, '0' + (int) (value % 10));
+            value /= 10;
+        }
+        out.writerIndex(end);
+    }
+
+    private static void code(Map<String, Short> dictionary, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isLetter(name.charAt(i)) || name.charAt(i) > 127) {
+                // Names are written into JSON unescaped
+                throw new IllegalArgumentException("Dictionary names must be ASCII letters: " + name);
+            }
+        }
+        dictionary.putIfAbsent(name, (short) dictionary.size());
+    }
+
+    private static byte[][] encode(Map<String, Short> dictionary, boolean lowerCase) {
+        List<byte[]> encoded = new ArrayList<>(dictionary.size());
+        for (String name : dictionary.keySet()) {
+            encoded.add(ascii(lowerCase ? name.toLowerCase(Locale.ROOT) : name));
+        }
+        return encoded.toArray(new byte[0][]);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return (z ^ (z >>> 31)) & Long.MAX_VALUE;
+    }
+}
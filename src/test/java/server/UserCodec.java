@@ -0,0 +1,62 @@
+package server;
+
+import models.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary form of a user's string fields shared by the store journal and snapshots:
+ * email, first_name, last_name, avatar, each as a short length (-1 for null) and UTF-8 bytes.
+ */
+final class UserCodec {
+
+    private UserCodec() {}
+
+    static byte[] encode(User user) {
+        byte[][] fields = {
+            utf8(user.getEmail()), utf8(user.getFirstName()), utf8(user.getLastName()), utf8(user.getAvatar())
+        };
+        int size = 0;
+        for (byte[] field : fields) {
+            size += Short.BYTES + (field == null ? 0 : field.length);
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        for (byte[] field : fields) {
+            if (field == null) {
+                out.putShort((short) -1);
+            } else {
+                out.putShort((short) field.length).put(field);
+            }
+        }
+        return out.array();
+    }
+
+    static User decode(int id, ByteBuffer in) {
+        User user = new User(string(in), string(in), string(in));
+        user.setAvatar(string(in));
+        user.setId(id);
+        return user;
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("User field longer than " + Short.MAX_VALUE + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String string(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,599 @@
+package server;
+
+import models.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent user data backing the local ReqRes stand-in.
+ * Seeded with the same 12 users the public API serves.
+ *
+ * Records are immutable and versioned. Reads are lock-free; writes to one ID are serialized by
+ * one of a fixed set of striped locks, so concurrent updates of a hot key really contend.
+ * Contention is measured by trying the lock first and counting the acquisitions that had to wait.
+ *
+ * A store opened on a directory is persistent: a memory-mapped StoreSnapshot is the base layer,
+ * every write is appended to the StoreJournal of the current generation before it is published,
+ * and records changed since the snapshot live in the in-memory overlay, deletes as tombstones.
+ * Opening maps the newest snapshot and replays only the journals written after it. Once a journal
+ * holds api.local.snapshotEvery entries it is rotated and a background thread merges the overlay
+ * into the next snapshot.
+ */
+public class UserStore implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserStore.class);
+    private static final String[][] SEED = {
+        {"george.bluth@reqres.in", "George", "Bluth"},
+        {"janet.weaver@reqres.in", "Janet", "Weaver"},
+        {"emma.wong@reqres.in", "Emma", "Wong"},
+        {"eve.holt@reqres.in", "Eve", "Holt"},
+        {"charles.morris@reqres.in", "Charles", "Morris"},
+        {"tracey.ramos@reqres.in", "Tracey", "Ramos"},
+        {"michael.lawson@reqres.in", "Michael", "Lawson"},
+        {"lindsay.ferguson@reqres.in", "Lindsay", "Ferguson"},
+        {"tobias.funke@reqres.in", "Tobias", "Funke"},
+        {"byron.fields@reqres.in", "Byron", "Fields"},
+        {"george.edwards@reqres.in", "George", "Edwards"},
+        {"rachel.howell@reqres.in", "Rachel", "Howell"}
+    };
+
+    private static final int DEFAULT_STRIPES = 64;
+    private static final Pattern STORE_FILE = Pattern.compile("(snapshot|journal)-(\\d+)\\.(snap|log)");
+
+    private final ConcurrentSkipListMap<Integer, Record> records = new ConcurrentSkipListMap<>();
+    private final ReentrantLock[] stripes;
+    private final AtomicInteger nextId;
+    private final AtomicInteger live = new AtomicInteger();
+    private final long createdNanos = System.nanoTime();
+
+    private final Path dir;
+    private final long snapshotEvery;
+    private final ExecutorService compactor;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile StoreSnapshot base;
+    private volatile StoreJournal journal;
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+
+    public UserStore(List<User> users) {
+        this(users, Integer.getInteger("api.local.stripes", DEFAULT_STRIPES));
+    }
+
+    public UserStore(List<User> users, int stripeCount) {
+        this(stripeCount, null, null);
+        int maxId = 0;
+        for (User user : users) {
+            records.put(user.getId(), new Record(copy(user), 1));
+            maxId = Math.max(maxId, user.getId());
+        }
+        live.set(records.size());
+        nextId.set(maxId);
+    }
+
+    private UserStore(int stripeCount, Path dir, StoreSnapshot base) {
+        // Power of two so the stripe is a mask of the ID
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.dir = dir;
+        this.base = base;
+        this.nextId = new AtomicInteger(base == null ? 0 : base.nextId());
+        this.snapshotEvery = Long.getLong("api.local.snapshotEvery", 1_000_000L);
+        this.compactor = dir == null ? null : Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "user-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (base != null) {
+            live.set((int) base.count());
+        }
+    }
+
+    /**
+     * Store holding the ReqRes fixture users with IDs 1..12
+     */
+    public static UserStore seeded() {
+        return new UserStore(seedUsers());
+    }
+
+    private static List<User> seedUsers() {
+        List<User> users = new ArrayList<>(SEED.length);
+        for (int i = 0; i < SEED.length; i++) {
+            users.add(newUser(i + 1, SEED[i][0], SEED[i][1], SEED[i][2]));
+        }
+        return users;
+    }
+
+    /**
+     * Persistent store in the directory: maps the newest snapshot, or writes one of the ReqRes
+     * fixture users if there is none, replays the journals written since and starts a new one.
+     */
+    public static UserStore open(Path dir) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(dir);
+        TreeMap<Long, Path> snapshotFiles = new TreeMap<>();
+        TreeMap<Long, Path> journalFiles = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(file -> {
+                Matcher m = STORE_FILE.matcher(file.getFileName().toString());
+                if (m.matches()) {
+                    (m.group(1).equals("snapshot") ? snapshotFiles : journalFiles).put(Long.parseLong(m.group(2)), file);
+                }
+            });
+        }
+        StoreSnapshot base;
+        if (snapshotFiles.isEmpty()) {
+            List<Record> fixtures = new ArrayList<>();
+            seedUsers().forEach(user -> fixtures.add(new Record(user, 1)));
+            base = StoreSnapshot.write(dir, 0, SEED.length, SEED.length, fixtures.iterator());
+        } else {
+            base = StoreSnapshot.open(snapshotFiles.lastEntry().getValue());
+        }
+
+        UserStore store = new UserStore(Integer.getInteger("api.local.stripes", DEFAULT_STRIPES), dir, base);
+        long replayed = 0;
+        long lastGeneration = base.generation();
+        for (Map.Entry<Long, Path> journalFile : journalFiles.tailMap(base.generation(), true).entrySet()) {
+            long entries = StoreJournal.replay(journalFile.getValue(), store::replay);
+            if (entries == 0) {
+                // Left empty by a run that never wrote, or torn before its first entry completed
+                Files.delete(journalFile.getValue());
+            }
+            replayed += entries;
+            lastGeneration = journalFile.getKey();
+        }
+        store.journal = StoreJournal.create(dir, lastGeneration + 1, Integer.getInteger("api.local.journalChunk", 1 << 24));
+        LOG.info("Opened user store {}: {} users from {}, {} journal entries replayed in {} ms", dir,
+            store.size(), base.file().getFileName(), replayed, (System.nanoTime() - start) / 1_000_000);
+        return store;
+    }
+
+    static User newUser(int id, String email, String firstName, String lastName) {
+        User user = new User(email, firstName, lastName);
+        user.setId(id);
+        user.setAvatar("https://reqres.in/img/faces/" + id + "-image.jpg");
+        return user;
+    }
+
+    /**
+     * Returns the user with the given ID or null when it does not exist
+     */
+    public User find(int id) {
+        Record record = get(id);
+        return record == null ? null : record.user;
+    }
+
+    /**
+     * Current versioned record for the ID, or null when it does not exist
+     */
+    public Record get(int id) {
+        reads.increment();
+        return current(id);
+    }
+
+    private Record current(int id) {
+        Record record = records.get(id);
+        if (record != null) {
+            return record.deleted() ? null : record;
+        }
+        StoreSnapshot snapshot = base;
+        if (snapshot == null) {
+            return null;
+        }
+        long index = snapshot.indexOf(id);
+        return index < 0 ? null : new Record(snapshot.userAt(index), snapshot.versionAt(index));
+    }
+
+    public int size() {
+        return live.get();
+    }
+
+    /**
+     * Returns one page of users in ID order; pages start at 1 and out-of-range pages are empty
+     */
+    public List<User> page(int page, int perPage) {
+        if (page < 1 || perPage < 1) {
+            return Collections.emptyList();
+        }
+        reads.increment();
+        long from = (long) (page - 1) * perPage;
+        Cursor cursor = new Cursor(base, records.entrySet().iterator());
+        for (long skipped = 0; skipped < from && cursor.advance(); skipped++) {
+            // Skipping compares IDs only; nothing is decoded
+        }
+        List<User> slice = new ArrayList<>(Math.min(perPage, size()));
+        while (slice.size() < perPage && cursor.advance()) {
+            slice.add(cursor.record().user);
+        }
+        return slice;
+    }
+
+    /**
+     * Applies the change to a copy of the current user and stores it as the next version.
+     * Returns the new record, or null when the user does not exist.
+     */
+    public Record update(int id, Consumer<User> change) {
+        return write(id, current -> {
+            if (current == null) {
+                return null;
+            }
+            User updated = copy(current.user);
+            change.accept(updated);
+            updated.setId(id);
+            return new Record(updated, current.version + 1);
+        });
+    }
+
+    /**
+     * Stores a new user under the next free ID
+     */
+    public Record create(Consumer<User> init) {
+        int id = nextId.incrementAndGet();
+        return write(id, current -> {
+            User user = newUser(id, null, null, null);
+            init.accept(user);
+            user.setId(id);
+            return new Record(user, 1);
+        });
+    }
+
+    /**
+     * Removes the user; returns whether it existed
+     */
+    public boolean delete(int id) {
+        Record[] removed = new Record[1];
+        write(id, current -> {
+            removed[0] = current;
+            return null;
+        });
+        return removed[0] != null;
+    }
+
+    private Record write(int id, Function<Record, Record> change) {
+        ReentrantLock lock = stripes[id & (stripes.length - 1)];
+        if (!lock.tryLock()) {
+            contended.increment();
+            long start = System.nanoTime();
+            lock.lock();
+            lockWaitNanos.add(System.nanoTime() - start);
+        }
+        long journaled = 0;
+        Record next;
+        try {
+            Record current = current(id);
+            next = change.apply(current);
+            if (current == null && next == null) {
+                writes.increment();
+                return null;
+            }
+            StoreJournal log = journal;
+            if (log != null) {
+                journaled = next == null
+                    ? log.append(StoreJournal.DELETE, id, current.version + 1, null)
+                    : log.append(StoreJournal.UPSERT, id, next.version, UserCodec.encode(next.user));
+            }
+            if (next == null) {
+                if (base == null) {
+                    records.remove(id);
+                } else {
+                    records.put(id, Record.tombstone(current.version + 1));
+                }
+                live.decrementAndGet();
+            } else {
+                records.put(id, next);
+                if (current == null) {
+                    live.incrementAndGet();
+                }
+            }
+            writes.increment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal append failed for user " + id, e);
+        } finally {
+            lock.unlock();
+        }
+        if (journaled >= snapshotEvery && compacting.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    snapshot();
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("User store snapshot failed", e);
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+        return next;
+    }
+
+    /**
+     * Applies one journal entry while opening; entries already contained in the base are skipped
+     */
+    private void replay(byte op, int id, long version, ByteBuffer user) {
+        Record existing = current(id);
+        if (existing != null && existing.version >= version) {
+            return;
+        }
+        if (op == StoreJournal.UPSERT) {
+            records.put(id, new Record(UserCodec.decode(id, user), version));
+            if (existing == null) {
+                live.incrementAndGet();
+            }
+            nextId.accumulateAndGet(id, Math::max);
+        } else if (existing != null) {
+            records.put(id, Record.tombstone(version));
+            live.decrementAndGet();
+        }
+    }
+
+    /**
+     * Rotates the journal and writes the next snapshot from the current base and overlay.
+     * Writes pause only while the journal is rotated; the merge runs alongside them.
+     */
+    void snapshot() throws IOException {
+        if (dir == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        StoreJournal previous;
+        StoreSnapshot previousBase;
+        List<Map.Entry<Integer, Record>> captured;
+        int capturedNextId;
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+        try {
+            previous = journal;
+            journal = StoreJournal.create(dir, previous.generation() + 1, Integer.getInteger("api.local.journalChunk", 1 << 24));
+            previousBase = base;
+            captured = new ArrayList<>(records.entrySet());
+            capturedNextId = nextId.get();
+        } finally {
+            for (ReentrantLock lock : stripes) {
+                lock.unlock();
+            }
+        }
+        previous.close();
+
+        Cursor merged = new Cursor(previousBase, captured.iterator());
+        StoreSnapshot next = StoreSnapshot.write(dir, journal.generation(), capturedNextId,
+            previousBase.count() + captured.size(), new Iterator<Record>() {
+                private boolean ready;
+                private boolean more;
+
+                @Override
+                public boolean hasNext() {
+                    if (!ready) {
+                        more = merged.advance();
+                        ready = true;
+                    }
+                    return more;
+                }
+
+                @Override
+                public Record next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    ready = false;
+                    return merged.record();
+                }
+            });
+        base = next;
+        // Entries written since the rotation are newer than the captured ones and stay in the overlay
+        captured.forEach(entry -> records.remove(entry.getKey(), entry.getValue()));
+        previousBase.close();
+        deleteBefore(next.generation());
+        snapshots.increment();
+        LOG.info("Wrote user store snapshot {} ({} users, {} overlay entries merged) in {} ms",
+            next.file().getFileName(), next.count(), captured.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void deleteBefore(long generation) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher m = STORE_FILE.matcher(file.getFileName().toString());
+                if (m.matches() && Long.parseLong(m.group(2)) < generation) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes a persistent store; its journal stays behind as the tail the next open replays
+     */
+    @Override
+    public void close() throws IOException {
+        if (dir == null || !closed.compareAndSet(false, true)) {
+            return;
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+        if (journal.entries() == 0) {
+            Files.deleteIfExists(journal.file());
+        }
+        base.close();
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getEmail(), user.getFirstName(), user.getLastName());
+        copy.setId(user.getId());
+        copy.setAvatar(user.getAvatar());
+        return copy;
+    }
+
+    public Stats stats() {
+        return new Stats(reads.sum(), writes.sum(), contended.sum(), lockWaitNanos.sum(),
+            (System.nanoTime() - createdNanos) / 1e9, stripes.length);
+    }
+
+    /**
+     * Ascending-ID merge of the snapshot base and an overlay; overlay entries win and tombstones are skipped
+     */
+    private static final class Cursor {
+        private final StoreSnapshot base;
+        private final Iterator<Map.Entry<Integer, Record>> overlay;
+        private Map.Entry<Integer, Record> pending;
+        private long baseIndex;
+        private long currentIndex;
+        private Record current;
+
+        Cursor(StoreSnapshot base, Iterator<Map.Entry<Integer, Record>> overlay) {
+            this.base = base;
+            this.overlay = overlay;
+        }
+
+        /**
+         * Moves to the next live record; returns false at the end
+         */
+        boolean advance() {
+            while (true) {
+                boolean hasBase = base != null && baseIndex < base.count();
+                if (pending == null && overlay.hasNext()) {
+                    pending = overlay.next();
+                }
+                if (pending == null && !hasBase) {
+                    return false;
+                }
+                int baseId = hasBase ? base.idAt(baseIndex) : 0;
+                if (pending != null && (!hasBase || pending.getKey() <= baseId)) {
+                    if (hasBase && pending.getKey() == baseId) {
+                        baseIndex++;
+                    }
+                    Record record = pending.getValue();
+                    pending = null;
+                    if (record.deleted()) {
+                        continue;
+                    }
+                    current = record;
+                    return true;
+                }
+                current = null;
+                currentIndex = baseIndex++;
+                return true;
+            }
+        }
+
+        Record record() {
+            return current != null ? current : new Record(base.userAt(currentIndex), base.versionAt(currentIndex));
+        }
+    }
+
+    /**
+     * Immutable user snapshot with its version; the encoded JSON body is cached on first use
+     */
+    public static final class Record {
+        private final User user;
+        private final long version;
+        private volatile byte[] encoded;
+
+        Record(User user, long version) {
+            this.user = user;
+            this.version = version;
+        }
+
+        /**
+         * Overlay marker for a user deleted since the snapshot
+         */
+        static Record tombstone(long version) {
+            return new Record(null, version);
+        }
+
+        boolean deleted() {
+            return user == null;
+        }
+
+        public User user() {
+            return user;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        /**
+         * Encoded form of this version; concurrent first calls may both encode, which is harmless
+         */
+        public byte[] encoded(Function<User, byte[]> encoder) {
+            byte[] body = encoded;
+            if (body == null) {
+                body = encoder.apply(user);
+                encoded = body;
+            }
+            return body;
+        }
+    }
+
+    /**
+     * Point-in-time store counters
+     */
+    public static final class Stats {
+        public final long reads;
+        public final long writes;
+        public final long contended;
+        public final long lockWaitNanos;
+        public final double uptimeSeconds;
+        public final int stripes;
+
+        Stats(long reads, long writes, long contended, long lockWaitNanos, double uptimeSeconds, int stripes) {
+            this.reads = reads;
+            this.writes = writes;
+            this.contended = contended;
+            this.lockWaitNanos = lockWaitNanos;
+            this.uptimeSeconds = uptimeSeconds;
+            this.stripes = stripes;
+        }
+
+        public double contentionRatio() {
+            return writes == 0 ? 0 : (double) contended / writes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "reads=%d writes=%d (%.0f/s) contended=%d (%.1f%%) avgWait=%.1fus stripes=%d",
+                reads, writes, writes / Math.max(1e-9, uptimeSeconds), contended, contentionRatio() * 100,
+                contended == 0 ? 0 : lockWaitNanos / 1e3 / contended, stripes);
+        }
+    }
+}
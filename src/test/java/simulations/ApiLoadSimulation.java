@@ -1,12 +1,23 @@
 package simulations;
 
+import bodies.UserBodies;
+import config.TestConfig;
+import contract.SchemaRegistry;
+import feeders.FeederFiles;
+import feeders.MappedFeeder;
+import server.ReqResStandIn;
 import io.gatling.javaapi.core.*;
 import io.gatling.javaapi.http.*;
 
 import static io.gatling.javaapi.core.CoreDsl.*;
 import static io.gatling.javaapi.http.HttpDsl.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Gatling Load Testing Simulation for ReqRes API (Java Version)
@@ -16,10 +27,17 @@ public class ApiLoadSimulation extends Simulation {
 
     // HTTP Protocol Configuration - mirrors TestConfig.java
     HttpProtocolBuilder httpProtocol = http
-        .baseUrl("https://reqres.in/api")
+        .baseUrl(TestConfig.BASE_URL + TestConfig.API_PATH)
         .acceptHeader("application/json")
         .contentTypeHeader("application/json")
-        .header("x-api-key", "reqres-free-v1");
+        .header(TestConfig.API_KEY_HEADER, TestConfig.API_KEY);
+
+    {
+        // Gatling negotiates HTTP/2 with ALPN, so -Dapi.http2 only takes effect against https targets
+        if (TestConfig.HTTP2) {
+            httpProtocol = httpProtocol.enableHttp2();
+        }
+    }
 
     // Scenario 1: Get Single User (mirrors testGetSingleUserValid)
     ScenarioBuilder getSingleUser = scenario("Get Single User")
@@ -27,12 +45,8 @@ public class ApiLoadSimulation extends Simulation {
             http("Get User 2")
                 .get("/users/2")
                 .check(status().is(200))
-                .check(jsonPath("$.data.id").is("2"))
-                .check(jsonPath("$.data.email").exists())
-                .check(jsonPath("$.data.first_name").exists())
-                .check(jsonPath("$.data.last_name").exists())
-                .check(jsonPath("$.data.avatar").exists())
-                .check(jsonPath("$.support.url").exists())
+                // Fields and contract in one check, so the body is parsed once
+                .check(UserChecks.SINGLE_USER_CONTRACT)
                 .check(responseTimeInMillis().lt(2000))
         );
 
@@ -44,44 +58,59 @@ public class ApiLoadSimulation extends Simulation {
                 .queryParam("page", "1")
                 .queryParam("per_page", "6")
                 .check(status().is(200))
-                .check(jsonPath("$.page").is("1"))
-                .check(jsonPath("$.per_page").is("6"))
-                .check(jsonPath("$.data").exists())
-                .check(jsonPath("$.total").exists())
-                .check(jsonPath("$.total_pages").exists())
+                .check(UserChecks.USER_LIST)
                 .check(responseTimeInMillis().lt(2000))
         );
 
+    // Feeders: memory-mapped, so large ID/body files do not grow the load generator heap
+    MappedFeeder.Strategy feederStrategy =
+        MappedFeeder.Strategy.valueOf(System.getProperty("feeder.strategy", "circular").toUpperCase(Locale.ROOT));
+    MappedFeeder userIds = MappedFeeder.csv(FeederFiles.userIds(), feederStrategy);
+    MappedFeeder userBodies = MappedFeeder.jsonl(FeederFiles.userBodies(), feederStrategy);
+
     // Scenario 3: Multiple Valid Users (mirrors testGetMultipleValidUsers with DataProvider)
     ScenarioBuilder getMultipleUsers = scenario("Get Multiple Users")
-        .repeat(5, "userId").on(
-            exec(session -> {
-                int userId = session.getInt("userId") + 1;
-                return session.set("currentUserId", userId);
-            })
+        .repeat(5).on(
+            feed(userIds)
             .exec(
-                http("Get User #{currentUserId}")
-                    .get("/users/#{currentUserId}")
+                http("Get User by ID")
+                    .get("/users/#{userId}")
                     .check(status().is(200))
                     .check(jsonPath("$.data.id").exists())
                     .check(jsonPath("$.data.email").exists())
+                    .check(ContractChecks.matchesSchema(SchemaRegistry.SINGLE_USER))
                     .check(responseTimeInMillis().lt(2000))
             )
             .pause(Duration.ofMillis(100))
         );
 
+    // Scenario 3b: the same five lookups as one bulk request (stand-in only, ReqRes has no ids parameter)
+    ScenarioBuilder getMultipleUsersBulk = scenario("Get Multiple Users Bulk")
+        .repeat(5).on(
+            feed(userIds)
+            .exec(session -> session.set("ids",
+                session.contains("ids") ? session.getString("ids") + "," + session.getString("userId") : session.getString("userId")))
+        )
+        .exec(
+            http("Get Users by IDs")
+                .get("/users?ids=#{ids}")
+                .check(status().is(200))
+                .check(jsonPath("$.data[*].id").count().gt(0))
+                .check(responseTimeInMillis().lt(2000))
+        );
+
+    // Write bodies: encoded once here rather than per request (see bodies.BodyTemplate)
+    byte[] patchBody = UserBodies.FIRST_NAME.render("Neo");
+    byte[] createBody = UserBodies.NAME.render("Temp", "User");
+    byte[] updateBody = UserBodies.NAME.render("Updated", "Name");
+
     // Scenario 4: Update User (mirrors testUpdateUserValid)
     ScenarioBuilder updateUser = scenario("Update User")
+        .feed(userBodies)
         .exec(
             http("Update User 2")
                 .put("/users/2")
-                .body(StringBody(
-                    "{" +
-                    "\"email\": \"morpheus.updated@example.com\"," +
-                    "\"first_name\": \"Morpheus\"," +
-                    "\"last_name\": \"Updated\"" +
-                    "}"
-                ))
+                .body(StringBody("#{body}"))
                 .asJson()
                 .check(status().is(200))
                 .check(jsonPath("$.updatedAt").exists())
@@ -93,7 +122,7 @@ public class ApiLoadSimulation extends Simulation {
         .exec(
             http("Patch User 2")
                 .patch("/users/2")
-                .body(StringBody("{\"first_name\": \"Neo\"}"))
+                .body(ByteArrayBody(patchBody))
                 .asJson()
                 .check(status().is(200))
                 .check(jsonPath("$.first_name").is("Neo"))
@@ -102,10 +131,19 @@ public class ApiLoadSimulation extends Simulation {
         );
 
     // Scenario 6: Delete User (mirrors testDeleteUserValid)
+    // Deletes a user it created itself, so a stateful stand-in keeps user 2 for the other scenarios
     ScenarioBuilder deleteUser = scenario("Delete User")
         .exec(
-            http("Delete User 2")
-                .delete("/users/2")
+            http("Create User")
+                .post("/users")
+                .body(ByteArrayBody(createBody))
+                .asJson()
+                .check(status().is(201))
+                .check(jsonPath("$.id").saveAs("createdId"))
+        )
+        .exec(
+            http("Delete Created User")
+                .delete("/users/#{createdId}")
                 .check(status().is(204))
                 .check(responseTimeInMillis().lt(2000))
         );
@@ -132,29 +170,49 @@ public class ApiLoadSimulation extends Simulation {
 
     // Scenario 8: Mixed API Operations - Realistic user flow
     ScenarioBuilder mixedOperations = scenario("Mixed API Operations")
-        .exec(
+        .exec(mixedOperations(updateBody, List.of()));
+
+    /**
+     * The mixed flow, also run by SoakSimulation; extraChecks are added to every request
+     */
+    static ChainBuilder mixedOperations(byte[] updateBody, List<CheckBuilder> extraChecks) {
+        return exec(
             http("Get User List")
                 .get("/users?page=1&per_page=6")
                 .check(status().is(200))
+                .check(extraChecks)
         )
         .pause(Duration.ofMillis(500))
         .exec(
             http("Get Specific User")
                 .get("/users/2")
                 .check(status().is(200))
+                .check(ContractChecks.matchesSchema(SchemaRegistry.SINGLE_USER))
+                .check(extraChecks)
         )
         .pause(Duration.ofMillis(300))
         .exec(
             http("Update User")
                 .put("/users/2")
-                .body(StringBody("{\"first_name\": \"Updated\", \"last_name\": \"Name\"}"))
+                .body(ByteArrayBody(updateBody))
                 .asJson()
                 .check(status().is(200))
+                .check(extraChecks)
+        )
+        .pause(Duration.ofMillis(300))
+        .exec(
+            // Gatling's HTTP cache sends If-None-Match with the ETag from the first read:
+            // 304 while the user is unchanged (echo mode), 200 once the update bumped its version
+            http("Get Specific User Again")
+                .get("/users/2")
+                .check(status().in(200, 304))
+                .check(extraChecks)
         );
+    }
 
     // Load Simulation Setup
     {
-        setUp(
+        List<PopulationBuilder> populations = new ArrayList<>(List.of(
             // Light load: Get single user repeatedly
             getSingleUser.injectOpen(
                 rampUsers(10).during(Duration.ofSeconds(10))
@@ -192,10 +250,32 @@ public class ApiLoadSimulation extends Simulation {
             mixedOperations.injectOpen(
                 rampUsers(15).during(Duration.ofSeconds(20))
             ).protocols(httpProtocol)
-        ).assertions(
+        ));
+        if (TestConfig.LOCAL_TARGET) {
+            populations.add(getMultipleUsersBulk.injectOpen(
+                atOnceUsers(5)
+            ).protocols(httpProtocol));
+        }
+
+        setUp(populations).assertions(
             global().responseTime().max().lt(5000),           // Max response time under 5 seconds
             global().successfulRequests().percent().gt(95.0)  // 95% success rate
         );
     }
-}
 
+    @Override
+    public void before() {
+        ReqResStandIn.startIfLocal();
+    }
+
+    @Override
+    public void after() {
+        ReqResStandIn.stopShared();
+        try {
+            userIds.close();
+            userBodies.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
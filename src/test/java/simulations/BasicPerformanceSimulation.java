@@ -1,5 +1,7 @@
 package simulations;
 
+import config.TestConfig;
+import server.ReqResStandIn;
 import io.gatling.javaapi.core.*;
 import io.gatling.javaapi.http.*;
 
@@ -16,10 +18,17 @@ public class BasicPerformanceSimulation extends Simulation {
 
     // HTTP Protocol Configuration
     HttpProtocolBuilder httpProtocol = http
-        .baseUrl("https://reqres.in/api")
+        .baseUrl(TestConfig.BASE_URL + TestConfig.API_PATH)
         .acceptHeader("application/json")
         .contentTypeHeader("application/json")
-        .header("x-api-key", "reqres-free-v1");
+        .header(TestConfig.API_KEY_HEADER, TestConfig.API_KEY);
+
+    {
+        // Gatling negotiates HTTP/2 with ALPN, so -Dapi.http2 only takes effect against https targets
+        if (TestConfig.HTTP2) {
+            httpProtocol = httpProtocol.enableHttp2();
+        }
+    }
 
     // Simple scenario: Get user by ID
     ScenarioBuilder getUserScenario = scenario("Get User by ID")
@@ -44,5 +53,14 @@ public class BasicPerformanceSimulation extends Simulation {
              global().successfulRequests().percent().gt(99.0)   // 99% success rate
          );
     }
-}
 
+    @Override
+    public void before() {
+        ReqResStandIn.startIfLocal();
+    }
+
+    @Override
+    public void after() {
+        ReqResStandIn.stopShared();
+    }
+}
@@ -0,0 +1,173 @@
+package simulations;
+
+import io.gatling.app.Gatling;
+import io.gatling.core.config.GatlingPropertiesBuilder;
+import server.ReqResStandIn;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds the highest request rate the target sustains while meeting the latency/error SLO.
+ *
+ * Runs CapacityStepSimulation in-process as a geometric ramp (startRps, startRps * growth, ...)
+ * until a step fails, then bisects between the last passing and first failing rate
+ * until they are within the requested precision. A step fails when p99 exceeds the SLO,
+ * the error rate exceeds the limit, or the load generator could not reach the target rate.
+ * An unrecorded priming step at startRps warms both JVMs first (-Dcapacity.prime=false to skip).
+ * Progress goes to stdout because an in-process Gatling run shuts logging down when it completes.
+ *
+ * mvn test-compile exec:java -Dexec.mainClass=simulations.CapacitySearch -Dexec.classpathScope=test -Dapi.target=local
+ */
+public class CapacitySearch {
+
+    private final String scenario = System.getProperty(CapacityStepSimulation.SCENARIO, "getUser");
+    private final double startRps = Double.parseDouble(System.getProperty("capacity.startRps", "50"));
+    private final double growth = Double.parseDouble(System.getProperty("capacity.growth", "2.0"));
+    private final double maxRps = Double.parseDouble(System.getProperty("capacity.maxRps", "20000"));
+    private final double precision = Double.parseDouble(System.getProperty("capacity.precision", "0.05"));
+    private final long sloP99Ms = Long.getLong("capacity.sloP99Ms", 500);
+    private final double maxErrorRate = Double.parseDouble(System.getProperty("capacity.maxErrorRate", "0.01"));
+    private final double minThroughputRatio = Double.parseDouble(System.getProperty("capacity.minThroughputRatio", "0.95"));
+    private final int stepSeconds = Integer.getInteger(CapacityStepSimulation.STEP_SECONDS, 20);
+    private final int warmupSeconds = Integer.getInteger(CapacityStepSimulation.WARMUP_SECONDS, 5);
+    private final boolean prime = Boolean.parseBoolean(System.getProperty("capacity.prime", "true"));
+    private final Path resultsDir = Paths.get(System.getProperty("capacity.resultsDir", "target/capacity"));
+
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * Highest passing rate, or 0 when even the first step failed
+     */
+    public double run() {
+        if (warmupSeconds >= stepSeconds) {
+            throw new IllegalArgumentException("capacity.warmupSeconds must be shorter than capacity.stepSeconds");
+        }
+        System.out.printf(Locale.ROOT, "Capacity search '%s': SLO p99<=%dms errors<=%.2f%%, steps of %ds (%ds warm-up)%n",
+            scenario, sloP99Ms, maxErrorRate * 100, stepSeconds, warmupSeconds);
+
+        if (prime) {
+            // A cold JVM on either side would fail the first step for reasons unrelated to capacity
+            System.out.println("Priming: " + measure(startRps));
+        }
+
+        double passing = 0;
+        double failing = 0;
+        for (double rate = startRps; rate <= maxRps; rate *= growth) {
+            if (runStep(rate).pass) {
+                passing = rate;
+            } else {
+                failing = rate;
+                break;
+            }
+        }
+        if (failing == 0) {
+            System.out.println("No failing step up to capacity.maxRps=" + maxRps + "; the result is a lower bound");
+            return passing;
+        }
+        while (failing - passing > Math.max(1, failing * precision)) {
+            double rate = Math.floor((passing + failing) / 2);
+            if (runStep(rate).pass) {
+                passing = rate;
+            } else {
+                failing = rate;
+            }
+        }
+        return passing;
+    }
+
+    private Step runStep(double rate) {
+        Step step = measure(rate);
+        steps.add(step);
+        System.out.println(step);
+        return step;
+    }
+
+    private Step measure(double rate) {
+        System.setProperty(CapacityStepSimulation.RATE, Double.toString(rate));
+        System.setProperty(CapacityStepSimulation.STEP_SECONDS, Integer.toString(stepSeconds));
+        System.setProperty(CapacityStepSimulation.SCENARIO, scenario);
+        System.setProperty(CapacityStepSimulation.WARMUP_SECONDS, Integer.toString(warmupSeconds));
+
+        Gatling.fromMap(new GatlingPropertiesBuilder()
+            .simulationClass(CapacityStepSimulation.class.getName())
+            .resultsDirectory(resultsDir.resolve("gatling").toString())
+            .noReports()
+            .build());
+
+        return new Step(rate, StepRecorder.finish());
+    }
+
+    void writeCsv(double result) throws IOException {
+        Files.createDirectories(resultsDir);
+        Path csv = resultsDir.resolve("capacity-" + scenario + ".csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println("target_rps,achieved_rps,requests,p50_ms,p90_ms,p99_ms,max_ms,error_pct,pass");
+            for (Step step : steps) {
+                out.println(step.toCsv());
+            }
+        }
+        for (Step step : steps) {
+            System.out.println(step);
+        }
+        if (ReqResStandIn.sharedStore() != null) {
+            System.out.println("Stand-in user store: " + ReqResStandIn.sharedStore().stats());
+        }
+        System.out.printf(Locale.ROOT, "Max sustainable rate for '%s': %.0f req/s (steps written to %s)%n",
+            scenario, result, csv.toAbsolutePath());
+    }
+
+    final class Step {
+        final double targetRps;
+        final double achievedRps;
+        final long requests;
+        final long p50;
+        final long p90;
+        final long p99;
+        final long max;
+        final double errorRate;
+        final boolean pass;
+
+        Step(double targetRps, StepRecorder.Snapshot snapshot) {
+            this.targetRps = targetRps;
+            this.achievedRps = snapshot.throughput();
+            this.requests = snapshot.sent;
+            this.p50 = snapshot.latencyMillis.getValueAtPercentile(50);
+            this.p90 = snapshot.latencyMillis.getValueAtPercentile(90);
+            this.p99 = snapshot.latencyMillis.getValueAtPercentile(99);
+            this.max = snapshot.latencyMillis.getMaxValue();
+            this.errorRate = snapshot.errorRate();
+            this.pass = requests > 0
+                && p99 <= sloP99Ms
+                && errorRate <= maxErrorRate
+                && achievedRps >= targetRps * minThroughputRatio;
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%.0f,%.1f,%d,%d,%d,%d,%d,%.3f,%s",
+                targetRps, achievedRps, requests, p50, p90, p99, max, errorRate * 100, pass);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "target=%.0f/s achieved=%.1f/s n=%d p50=%dms p90=%dms p99=%dms max=%dms errors=%.2f%% -> %s",
+                targetRps, achievedRps, requests, p50, p90, p99, max, errorRate * 100, pass ? "PASS" : "FAIL");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        CapacitySearch search = new CapacitySearch();
+        try {
+            search.writeCsv(search.run());
+        } finally {
+            ReqResStandIn.stopShared();
+        }
+    }
+}
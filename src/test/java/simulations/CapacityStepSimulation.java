@@ -0,0 +1,117 @@
+package simulations;
+
+import config.TestConfig;
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+import server.ReqResStandIn;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * One constant-throughput phase of a capacity search, driven by CapacitySearch.
+ * Runs -Dcapacity.scenario at -Dcapacity.rate requests/second for -Dcapacity.stepSeconds
+ * and records latency and errors into StepRecorder.
+ * -Dcapacity.checks adds body checks to the read scenarios: "jsonpath" (one jsonPath() check per
+ * field) or "combined" (one JsonChecks pass); the default "status" checks the status only.
+ */
+public class CapacityStepSimulation extends Simulation {
+
+    static final String RATE = "capacity.rate";
+    static final String STEP_SECONDS = "capacity.stepSeconds";
+    static final String SCENARIO = "capacity.scenario";
+    static final String WARMUP_SECONDS = "capacity.warmupSeconds";
+    static final String CHECKS = "capacity.checks";
+
+    double rate = Double.parseDouble(System.getProperty(RATE, "10"));
+    int stepSeconds = Integer.getInteger(STEP_SECONDS, 20);
+    String scenarioName = System.getProperty(SCENARIO, "getUser");
+    int warmupSeconds = Integer.getInteger(WARMUP_SECONDS, 5);
+    String checks = System.getProperty(CHECKS, "status");
+
+    // Connections are shared across virtual users so each arrival is one request, not one handshake
+    HttpProtocolBuilder httpProtocol = http
+        .baseUrl(TestConfig.BASE_URL + TestConfig.API_PATH)
+        .acceptHeader("application/json")
+        .contentTypeHeader("application/json")
+        .header(TestConfig.API_KEY_HEADER, TestConfig.API_KEY)
+        .shareConnections();
+
+    ScenarioBuilder scenario = scenario("Capacity " + scenarioName)
+        .exec(session -> {
+            StepRecorder.sent();
+            return session;
+        })
+        .exec(request(scenarioName, checks));
+
+    static HttpRequestActionBuilder request(String name, String checks) {
+        switch (name) {
+            case "getUser":
+                return http("Get User 2")
+                    .get("/users/2")
+                    .check(status().is(200))
+                    .check(bodyChecks(checks, UserChecks::singleUser))
+                    .check(responseTimeInMillis().transform(StepRecorder::ok));
+            case "getUserList":
+                return http("Get Users Page 1")
+                    .get("/users?page=1&per_page=6")
+                    .check(status().is(200))
+                    .check(bodyChecks(checks, UserChecks::userList))
+                    .check(responseTimeInMillis().transform(StepRecorder::ok));
+            case "updateUser":
+                return http("Update User 2")
+                    .put("/users/2")
+                    .body(StringBody("{\"first_name\": \"Updated\", \"last_name\": \"Name\"}"))
+                    .asJson()
+                    .check(status().is(200))
+                    .check(responseTimeInMillis().transform(StepRecorder::ok));
+            case "patchUser":
+                return http("Patch User 2")
+                    .patch("/users/2")
+                    .body(StringBody("{\"first_name\": \"Neo\"}"))
+                    .asJson()
+                    .check(status().is(200))
+                    .check(responseTimeInMillis().transform(StepRecorder::ok));
+            default:
+                throw new IllegalArgumentException("Unknown capacity scenario: " + name);
+        }
+    }
+
+    private static List<CheckBuilder> bodyChecks(String checks, Function<Boolean, List<CheckBuilder>> variant) {
+        switch (checks) {
+            case "status":
+                return List.of();
+            case "jsonpath":
+                return variant.apply(false);
+            case "combined":
+                return variant.apply(true);
+            default:
+                throw new IllegalArgumentException("Unknown capacity checks: " + checks);
+        }
+    }
+
+    {
+        setUp(
+            scenario.injectOpen(
+                constantUsersPerSec(rate).during(Duration.ofSeconds(stepSeconds))
+            )
+        ).protocols(httpProtocol);
+    }
+
+    @Override
+    public void before() {
+        // The search driver owns the stand-in lifecycle across steps
+        ReqResStandIn.startIfLocal();
+        StepRecorder.reset(TimeUnit.SECONDS.toNanos(warmupSeconds));
+    }
+
+    @Override
+    public void after() {
+        StepRecorder.stop();
+    }
+}
@@ -0,0 +1,132 @@
+package simulations;
+
+import config.TestConfig;
+import io.gatling.app.Gatling;
+import io.gatling.core.config.GatlingPropertiesBuilder;
+import server.ReqResStandIn;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares what the body checks of a read scenario cost the load generator: status only, the
+ * jsonPath() chain and one JsonChecks pass.
+ *
+ * Runs CapacityStepSimulation in-process at -Dcomparison.rate (500) requests/second for
+ * -Dcomparison.seconds (20) per variant, after an unrecorded priming round of every variant.
+ * StepRecorder measures the generator's CPU time over each step, less the stand-in's threads when
+ * the target is local, which gives the requests one fully busy generator core would send.
+ * Progress goes to stdout because an in-process Gatling run shuts logging down when it completes.
+ *
+ * mvn test-compile exec:java -Dexec.mainClass=simulations.CheckComparison -Dexec.classpathScope=test -Dapi.target=local
+ */
+public class CheckComparison {
+
+    private static final List<String> VARIANTS = List.of("status", "jsonpath", "combined");
+
+    private final String scenario = System.getProperty("comparison.scenario", "getUser");
+    private final double rate = Double.parseDouble(System.getProperty("comparison.rate", "500"));
+    private final int seconds = Integer.getInteger("comparison.seconds", 20);
+    private final int warmupSeconds = Integer.getInteger("comparison.warmupSeconds", 5);
+    private final int rounds = Integer.getInteger("comparison.rounds", 1);
+
+    Map<String, Result> run() {
+        System.out.printf(Locale.ROOT, "Check comparison '%s': %.0f req/s, %ds (%ds warm-up) per variant, %d round(s) against %s%n",
+            scenario, rate, seconds, warmupSeconds, rounds, TestConfig.BASE_URL);
+        for (String checks : VARIANTS) {
+            System.out.println("Priming: " + measure(checks));
+        }
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (int round = 0; round < rounds; round++) {
+            // Variants alternate within a round, so drift over the run does not favour one of them
+            for (String checks : VARIANTS) {
+                Result result = measure(checks);
+                System.out.println(result);
+                results.merge(checks, result, Result::plus);
+            }
+        }
+        return results;
+    }
+
+    private Result measure(String checks) {
+        System.setProperty(CapacityStepSimulation.RATE, Double.toString(rate));
+        System.setProperty(CapacityStepSimulation.STEP_SECONDS, Integer.toString(seconds + warmupSeconds));
+        System.setProperty(CapacityStepSimulation.SCENARIO, scenario);
+        System.setProperty(CapacityStepSimulation.WARMUP_SECONDS, Integer.toString(warmupSeconds));
+        System.setProperty(CapacityStepSimulation.CHECKS, checks);
+
+        Gatling.fromMap(new GatlingPropertiesBuilder()
+            .simulationClass(CapacityStepSimulation.class.getName())
+            .resultsDirectory("target/gatling")
+            .noReports()
+            .build());
+
+        StepRecorder.Snapshot snapshot = StepRecorder.finish();
+        return new Result(checks, snapshot.sent, snapshot.ok, snapshot.seconds, snapshot.generatorCpuSeconds,
+            snapshot.latencyMillis.getValueAtPercentile(99));
+    }
+
+    static void printSummary(Map<String, Result> results) {
+        System.out.println("Summary:");
+        results.values().forEach(System.out::println);
+        Result before = results.get("jsonpath");
+        Result after = results.get("combined");
+        if (before != null && after != null && before.requestsPerCore() > 0) {
+            System.out.printf(Locale.ROOT, "combined vs jsonpath: %+.1f%% requests per generator core, %+.1f us CPU per request%n",
+                (after.requestsPerCore() / before.requestsPerCore() - 1) * 100,
+                after.cpuMicrosPerRequest() - before.cpuMicrosPerRequest());
+        }
+    }
+
+    /**
+     * Throughput and generator CPU of one variant, summed over rounds
+     */
+    static final class Result {
+        final String checks;
+        final long sent;
+        final long ok;
+        final double seconds;
+        final double cpuSeconds;
+        final long p99Millis;
+
+        Result(String checks, long sent, long ok, double seconds, double cpuSeconds, long p99Millis) {
+            this.checks = checks;
+            this.sent = sent;
+            this.ok = ok;
+            this.seconds = seconds;
+            this.cpuSeconds = cpuSeconds;
+            this.p99Millis = p99Millis;
+        }
+
+        Result plus(Result other) {
+            return new Result(checks, sent + other.sent, ok + other.ok, seconds + other.seconds,
+                cpuSeconds + other.cpuSeconds, Math.max(p99Millis, other.p99Millis));
+        }
+
+        double cpuMicrosPerRequest() {
+            return sent == 0 ? 0 : cpuSeconds * 1e6 / sent;
+        }
+
+        double requestsPerCore() {
+            return cpuSeconds == 0 ? 0 : sent / cpuSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "%-9s achieved=%.1f/s n=%d errors=%.2f%% p99=%dms generator CPU=%.1fus/req -> %.0f req/s per generator core",
+                checks, sent / Math.max(1e-9, seconds), sent, sent == 0 ? 0 : Math.max(0, sent - ok) * 100.0 / sent,
+                p99Millis, cpuMicrosPerRequest(), requestsPerCore());
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            printSummary(new CheckComparison().run());
+        } finally {
+            ReqResStandIn.stopShared();
+        }
+    }
+}
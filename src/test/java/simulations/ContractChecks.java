@@ -0,0 +1,31 @@
+package simulations;
+
+import contract.SchemaRegistry;
+import io.gatling.javaapi.core.CheckBuilder;
+
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.bodyBytes;
+
+/**
+ * Gatling checks backed by the shared SchemaRegistry, cheap enough to run on every request
+ */
+public final class ContractChecks {
+
+    private ContractChecks() {}
+
+    /**
+     * Fails the request when the body violates the named schema under src/test/resources/schemas
+     */
+    public static CheckBuilder.Final matchesSchema(String name) {
+        SchemaRegistry registry = SchemaRegistry.getDefault();
+        registry.schema(name); // compile up front rather than on the first virtual user
+        return bodyBytes().validate("schema " + name, (body, session) -> {
+            List<String> violations = registry.validate(name, body);
+            if (!violations.isEmpty()) {
+                throw new IllegalStateException("Schema " + name + " violated: " + violations);
+            }
+            return body;
+        });
+    }
+}
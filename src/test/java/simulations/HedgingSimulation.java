@@ -0,0 +1,167 @@
+package simulations;
+
+import config.TestConfig;
+import io.gatling.javaapi.core.*;
+import latency.Hedger;
+import latency.RetryBudget;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import server.ReqResStandIn;
+import tracing.TracedBodyHandler;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures what hedging does to the tail of GET /users/{id}.
+ *
+ * Two open-model scenarios run side by side at -Dhedging.rate requests/second each for
+ * -Dhedging.seconds: one sends plain requests, the other goes through a Hedger with its own
+ * RetryBudget. Both use the same asynchronous java.net.http client, so Gatling only schedules the
+ * arrivals and never blocks on a response. Latencies after -Dhedging.warmupSeconds are recorded
+ * per variant and compared when the run ends.
+ *
+ * Against the stand-in, the slow-tail fault profile delays 2% of single-user reads by 200 ms
+ * unless -Dapi.local.faults selects another one.
+ *
+ * mvn gatling:test -Dgatling.simulationClass=simulations.HedgingSimulation -Dapi.target=local
+ */
+public class HedgingSimulation extends Simulation {
+
+    double rate = Double.parseDouble(System.getProperty("hedging.rate", "100"));
+    int seconds = Integer.getInteger("hedging.seconds", 30);
+    int warmupSeconds = Integer.getInteger("hedging.warmupSeconds", 5);
+
+    final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    final RetryBudget budget = new RetryBudget(
+        Double.parseDouble(System.getProperty("api.hedge.budgetRatio", "0.1")),
+        Double.parseDouble(System.getProperty("api.hedge.budgetTokens", "10")));
+    final Hedger hedger = new Hedger(budget);
+    final Variant plain = new Variant("plain");
+    final Variant hedged = new Variant("hedged");
+    volatile long measureFromNanos = Long.MAX_VALUE;
+
+    ScenarioBuilder plainScenario = scenario("Plain Get User")
+        .exec(session -> {
+            plain.track(System.nanoTime(), get(session.userId()));
+            return session;
+        });
+
+    ScenarioBuilder hedgedScenario = scenario("Hedged Get User")
+        .exec(session -> {
+            long id = session.userId();
+            hedged.track(System.nanoTime(), hedger.callAsync(() -> get(id)));
+            return session;
+        });
+
+    // One Gatling request so the target is checked and Gatling has something to report
+    ScenarioBuilder probe = scenario("Probe Target")
+        .exec(http("Get User 1").get("/users/1").check(status().is(200)));
+
+    {
+        setUp(
+            probe.injectOpen(atOnceUsers(1)).protocols(http
+                .baseUrl(TestConfig.BASE_URL + TestConfig.API_PATH)
+                .header(TestConfig.API_KEY_HEADER, TestConfig.API_KEY)),
+            plainScenario.injectOpen(constantUsersPerSec(rate).during(Duration.ofSeconds(seconds))),
+            hedgedScenario.injectOpen(constantUsersPerSec(rate).during(Duration.ofSeconds(seconds)))
+        );
+    }
+
+    /**
+     * GET of one of the 12 fixture users, failing on anything but 200
+     */
+    CompletableFuture<Integer> get(long sequence) {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create(TestConfig.BASE_URL + TestConfig.API_PATH + "/users/" + (sequence % 12 + 1)))
+            .header("Accept", "application/json")
+            .header(TestConfig.API_KEY_HEADER, TestConfig.API_KEY)
+            .timeout(Duration.ofSeconds(10))
+            .GET()
+            .build();
+        return client.sendAsync(request,
+            TracedBodyHandler.of("GET", "/users/{id}", HttpResponse.BodyHandlers.discarding())).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + request.uri() + " returned " + response.statusCode());
+            }
+            return response.statusCode();
+        });
+    }
+
+    @Override
+    public void before() {
+        ReqResStandIn.startIfLocal();
+        if (TestConfig.LOCAL_TARGET && System.getProperty("api.local.faults") == null) {
+            ReqResStandIn.sharedFaults().set("slow-tail");
+        }
+        measureFromNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+    }
+
+    @Override
+    public void after() {
+        try {
+            // Virtual users end as soon as their request is sent; let the last responses arrive
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Gatling has stopped logging by now, so the comparison goes to stdout
+        System.out.println(plain);
+        System.out.println(hedged);
+        Histogram p = plain.latency.copy();
+        Histogram h = hedged.latency.copy();
+        if (p.getTotalCount() > 0 && h.getTotalCount() > 0) {
+            System.out.printf(Locale.ROOT, "p99 %.1f ms -> %.1f ms (%+.0f%%), hedger: %s%n",
+                p.getValueAtPercentile(99) / 1e3, h.getValueAtPercentile(99) / 1e3,
+                (h.getValueAtPercentile(99) - p.getValueAtPercentile(99)) * 100.0 / p.getValueAtPercentile(99), hedger);
+        }
+        ReqResStandIn.stopShared();
+    }
+
+    /**
+     * Latency distribution (microseconds) and errors of one variant
+     */
+    final class Variant {
+        final String name;
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final LongAdder errors = new LongAdder();
+
+        Variant(String name) {
+            this.name = name;
+        }
+
+        void track(long start, CompletableFuture<?> response) {
+            response.whenComplete((value, error) -> {
+                if (start < measureFromNanos) {
+                    return;
+                }
+                if (error != null) {
+                    errors.increment();
+                } else {
+                    latency.recordValue(Math.min(latency.getHighestTrackableValue(), (System.nanoTime() - start) / 1_000));
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            Histogram h = latency.copy();
+            return String.format(Locale.ROOT, "%-6s n=%d errors=%d p50=%.1fms p95=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms",
+                name, h.getTotalCount(), errors.sum(), h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(95) / 1e3,
+                h.getValueAtPercentile(99) / 1e3, h.getValueAtPercentile(99.9) / 1e3, h.getMaxValue() / 1e3);
+        }
+    }
+}
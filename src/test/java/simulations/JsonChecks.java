@@ -0,0 +1,238 @@
+package simulations;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import contract.SchemaRegistry;
+import io.gatling.javaapi.core.CheckBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.gatling.javaapi.core.CoreDsl.bodyBytes;
+
+/**
+ * A set of field expectations checked in one streaming pass over the response body.
+ *
+ * Each jsonPath() check evaluates its own path against a tree Gatling builds from the whole body.
+ * Here the paths are compiled up front into a field trie, and the body is read once with a Jackson
+ * streaming parser that skips every subtree no expectation looks into and stops as soon as every
+ * path has been seen. Paths are "$.a.b" chains of
+ * object fields; an array can be checked as a value (exists, type) but not looked into.
+ *
+ * With schema(name) the body is validated against that SchemaRegistry schema in the same check.
+ * Schema validation needs a tree, so the body is then parsed once into one and the expectations
+ * are read from the tree instead of the bytes, rather than parsing the body a second time.
+ *
+ * .check(JsonChecks.expect().is("$.data.id", "2").exists("$.data.email").build())
+ */
+public final class JsonChecks {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final ObjectMapper TREES = new ObjectMapper();
+
+    /**
+     * JSON value types, as checked by type()
+     */
+    public enum Type { OBJECT, ARRAY, STRING, NUMBER, BOOLEAN, NULL }
+
+    private final Node root = new Node();
+    private final List<String> paths = new ArrayList<>();
+    private String schema;
+
+    private JsonChecks() {}
+
+    public static JsonChecks expect() {
+        return new JsonChecks();
+    }
+
+    /**
+     * The path is present, with any value
+     */
+    public JsonChecks exists(String path) {
+        return add(path, (token, parser) -> null);
+    }
+
+    /**
+     * The path holds a scalar whose text is the expected one, as jsonPath(path).is(expected) compares it
+     */
+    public JsonChecks is(String path, String expected) {
+        return add(path, (token, parser) -> {
+            if (token.isStructStart()) {
+                return "is " + type(token) + ", expected " + expected;
+            }
+            String actual = token == JsonToken.VALUE_NULL ? "null" : parser.getText();
+            return expected.equals(actual) ? null : "is " + actual + ", expected " + expected;
+        });
+    }
+
+    /**
+     * The path holds a value of this type
+     */
+    public JsonChecks type(String path, Type expected) {
+        return add(path, (token, parser) -> {
+            Type actual = type(token);
+            return actual == expected ? null : "is " + actual + ", expected " + expected;
+        });
+    }
+
+    /**
+     * The body also satisfies the named schema under src/test/resources/schemas
+     */
+    public JsonChecks schema(String name) {
+        SchemaRegistry.getDefault().schema(name); // compile up front rather than on the first virtual user
+        this.schema = name;
+        return this;
+    }
+
+    private JsonChecks add(String path, Expectation expectation) {
+        if (paths.size() == Long.SIZE) {
+            throw new IllegalStateException("At most " + Long.SIZE + " expectations per check");
+        }
+        if (!path.startsWith("$.")) {
+            throw new IllegalArgumentException("Expected a $.field path: " + path);
+        }
+        Node node = root;
+        for (String field : path.substring(2).split("\\.")) {
+            node = node.children.computeIfAbsent(field, key -> new Node());
+        }
+        node.expectations.add(new Bound(paths.size(), expectation));
+        paths.add(path);
+        return this;
+    }
+
+    /**
+     * The Gatling check; fails the request with every unmet expectation.
+     * Expectations added afterwards would change it, so build once and share the check.
+     */
+    public CheckBuilder.Final build() {
+        return bodyBytes().validate("json " + paths + (schema == null ? "" : " schema " + schema), (body, session) -> {
+            List<String> failures = verify(body);
+            if (!failures.isEmpty()) {
+                throw new IllegalStateException(String.join(", ", failures));
+            }
+            return body;
+        });
+    }
+
+    /**
+     * Unmet expectations of the body, empty when all hold
+     */
+    List<String> verify(byte[] body) {
+        List<String> failures = new ArrayList<>(0);
+        JsonNode tree = null;
+        if (schema != null) {
+            try {
+                tree = TREES.readTree(body);
+            } catch (IOException e) {
+                failures.add("body is not valid JSON: " + e.getMessage());
+                return failures;
+            }
+            List<String> violations = SchemaRegistry.getDefault().validate(schema, tree);
+            if (!violations.isEmpty()) {
+                failures.add("schema " + schema + " violated: " + violations);
+            }
+        }
+        long seen;
+        try (JsonParser parser = tree != null ? tree.traverse() : JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                failures.add("body is not a JSON object");
+                return failures;
+            }
+            seen = walk(parser, root, 0L, all(), failures);
+        } catch (IOException e) {
+            failures.add("body is not valid JSON: " + e.getMessage());
+            return failures;
+        }
+        for (int i = 0; i < paths.size(); i++) {
+            if ((seen & 1L << i) == 0) {
+                failures.add(paths.get(i) + " not found");
+            }
+        }
+        return failures;
+    }
+
+    private long all() {
+        return paths.size() == Long.SIZE ? -1L : (1L << paths.size()) - 1;
+    }
+
+    /**
+     * Reads the object the parser is at, up to its END_OBJECT or until seen is all, and returns
+     * seen with the expectations it reached set
+     */
+    private long walk(JsonParser parser, Node node, long seen, long all, List<String> failures) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Node child = node.children.get(parser.getCurrentName());
+            JsonToken token = parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+                continue;
+            }
+            for (Bound bound : child.expectations) {
+                seen |= 1L << bound.index;
+                String failure = bound.expectation.check(token, parser);
+                if (failure != null) {
+                    failures.add(paths.get(bound.index) + " " + failure);
+                }
+            }
+            if (seen == all) {
+                return seen;
+            }
+            if (token == JsonToken.START_OBJECT && !child.children.isEmpty()) {
+                seen = walk(parser, child, seen, all, failures);
+                if (seen == all) {
+                    return seen;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return seen;
+    }
+
+    private static Type type(JsonToken token) {
+        switch (token) {
+            case START_OBJECT:
+                return Type.OBJECT;
+            case START_ARRAY:
+                return Type.ARRAY;
+            case VALUE_STRING:
+                return Type.STRING;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return Type.NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return Type.BOOLEAN;
+            default:
+                return Type.NULL;
+        }
+    }
+
+    private interface Expectation {
+        /**
+         * Null when the value the parser is at meets the expectation, otherwise what is wrong with it
+         */
+        String check(JsonToken token, JsonParser parser) throws IOException;
+    }
+
+    private static final class Bound {
+        final int index;
+        final Expectation expectation;
+
+        Bound(int index, Expectation expectation) {
+            this.index = index;
+            this.expectation = expectation;
+        }
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        final List<Bound> expectations = new ArrayList<>();
+    }
+}
@@ -0,0 +1,180 @@
+package simulations;
+
+import config.TestConfig;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import server.ReqResStandIn;
+import tracing.TracedBodyHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares HTTP/2 with HTTP/1.1 at high concurrency: throughput, connections and latency of
+ * GET /users/{id} with -Dcomparison.users (1000) concurrent virtual users.
+ *
+ * Each virtual user sends its next request as soon as the previous one has completed, for
+ * -Dcomparison.seconds (30) after -Dcomparison.warmupSeconds (5). Over HTTP/1.1 every in-flight
+ * request needs its own connection; over HTTP/2 they are multiplexed as streams on one. Requests
+ * go through the asynchronous java.net.http client, which also speaks h2c to the stand-in; Gatling
+ * only negotiates HTTP/2 over TLS. Against the stand-in, connection counts are taken on the server.
+ *
+ * mvn test-compile exec:java -Dexec.mainClass=simulations.ProtocolComparison -Dexec.classpathScope=test -Dapi.target=local
+ */
+public class ProtocolComparison {
+
+    private final int users = Integer.getInteger("comparison.users", 1000);
+    private final int seconds = Integer.getInteger("comparison.seconds", 30);
+    private final int warmupSeconds = Integer.getInteger("comparison.warmupSeconds", 5);
+    private final ReqResStandIn standIn;
+
+    ProtocolComparison(ReqResStandIn standIn) {
+        this.standIn = standIn;
+    }
+
+    /**
+     * Runs both protocols one after the other; HTTP/2 first, so its single connection is all that
+     * stays open while HTTP/1.1 runs
+     */
+    List<Result> run() throws IOException, InterruptedException {
+        System.out.printf(Locale.ROOT, "Protocol comparison: %d virtual users, %ds (%ds warm-up) per protocol against %s%n",
+            users, seconds, warmupSeconds, TestConfig.BASE_URL);
+        List<Result> results = new ArrayList<>();
+        for (HttpClient.Version version : new HttpClient.Version[] {HttpClient.Version.HTTP_2, HttpClient.Version.HTTP_1_1}) {
+            Result result = measure(version);
+            System.out.println(result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private Result measure(HttpClient.Version version) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+            .version(version)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        Result result = new Result(version);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable sample = () -> { };
+        if (standIn != null) {
+            // Connections left open by an earlier run are not counted
+            int idle = standIn.connectionsOpen();
+            long opened = standIn.connectionsOpened();
+            sample = () -> {
+                result.peakConnections.accumulateAndGet(standIn.connectionsOpen() - idle, Math::max);
+                result.openedConnections = standIn.connectionsOpened() - opened;
+            };
+            sampler.scheduleAtFixedRate(sample, 0, 100, TimeUnit.MILLISECONDS);
+        }
+
+        // Negotiates HTTP/2 once, before the virtual users start
+        result.negotiated = client.send(request(1), HttpResponse.BodyHandlers.discarding()).version();
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(users);
+        for (int user = 0; user < users; user++) {
+            next(client, user, measureFrom, end, result, done);
+        }
+        done.await();
+        sampler.shutdownNow();
+        sample.run();
+        result.measuredNanos = System.nanoTime() - measureFrom;
+        return result;
+    }
+
+    /**
+     * Sends one request of a virtual user and chains the next one onto its completion
+     */
+    private void next(HttpClient client, long user, long measureFrom, long end, Result result, CountDownLatch done) {
+        long start = System.nanoTime();
+        if (start >= end) {
+            done.countDown();
+            return;
+        }
+        client.sendAsync(request(user),
+            TracedBodyHandler.of("GET", "/users/{id}", HttpResponse.BodyHandlers.discarding())).whenComplete((response, error) -> {
+            if (start >= measureFrom) {
+                if (error != null || response.statusCode() != 200) {
+                    result.errors.increment();
+                } else {
+                    long micros = (System.nanoTime() - start) / 1_000;
+                    result.latency.recordValue(Math.min(result.latency.getHighestTrackableValue(), micros));
+                }
+            }
+            next(client, user + users, measureFrom, end, result, done);
+        });
+    }
+
+    private static HttpRequest request(long sequence) {
+        return HttpRequest.newBuilder(
+                URI.create(TestConfig.BASE_URL + TestConfig.API_PATH + "/users/" + (sequence % 12 + 1)))
+            .header("Accept", "application/json")
+            .header(TestConfig.API_KEY_HEADER, TestConfig.API_KEY)
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+    }
+
+    /**
+     * Throughput, latency (microseconds) and connections of one protocol
+     */
+    static final class Result {
+        final HttpClient.Version version;
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final LongAdder errors = new LongAdder();
+        final AtomicInteger peakConnections = new AtomicInteger(-1);
+        volatile long openedConnections = -1;
+        HttpClient.Version negotiated;
+        long measuredNanos;
+
+        Result(HttpClient.Version version) {
+            this.version = version;
+        }
+
+        double throughput() {
+            return measuredNanos <= 0 ? 0 : latency.getTotalCount() * 1e9 / measuredNanos;
+        }
+
+        @Override
+        public String toString() {
+            Histogram h = latency.copy();
+            return String.format(Locale.ROOT,
+                "%-8s%s %8.0f req/s errors=%d connections: %s opened, %s peak  p50=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms",
+                version, negotiated == version ? "" : " (got " + negotiated + ")", throughput(), errors.sum(),
+                openedConnections < 0 ? "n/a" : Long.toString(openedConnections),
+                peakConnections.get() < 0 ? "n/a" : Integer.toString(peakConnections.get()),
+                h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(99) / 1e3,
+                h.getValueAtPercentile(99.9) / 1e3, h.getMaxValue() / 1e3);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ReqResStandIn standIn = TestConfig.LOCAL_TARGET ? new ReqResStandIn(TestConfig.LOCAL_PORT).start() : null;
+        try {
+            new ProtocolComparison(standIn).run();
+        } finally {
+            if (standIn != null) {
+                standIn.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package simulations;
+
+import bodies.UserBodies;
+import config.TestConfig;
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+import server.ReqResStandIn;
+import soak.ForkedTarget;
+import soak.SoakMonitor;
+import soak.SoakReport;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Soak run: the Mixed API Operations flow of ApiLoadSimulation at a constant -Dsoak.rate
+ * (5) users/second for -Dsoak.minutes (30), while SoakMonitor samples heap, GC, threads and open
+ * file descriptors of the load generator and the target every -Dsoak.sampleSeconds (10).
+ * The final SoakReport flags monotonic growth after -Dsoak.warmupSeconds (60) as a possible leak
+ * and relates p99 drift to GC pauses; the samples are written to target/soak/soak.csv.
+ *
+ * Against the local target the stand-in runs in a forked JVM (-Dsoak.forkTarget=false keeps it in
+ * this one, where both sides then share a JVM). A remote target is sampled through /__stats when
+ * it is a stand-in; otherwise only the load generator is.
+ */
+public class SoakSimulation extends Simulation {
+
+    static final Path DIR = Paths.get("target", "soak");
+
+    int minutes = Integer.getInteger("soak.minutes", 30);
+    double rate = Double.parseDouble(System.getProperty("soak.rate", "5"));
+    int sampleSeconds = Integer.getInteger("soak.sampleSeconds", 10);
+    int warmupSeconds = Integer.getInteger("soak.warmupSeconds", 60);
+    boolean forkTarget = TestConfig.LOCAL_TARGET && Boolean.parseBoolean(System.getProperty("soak.forkTarget", "true"));
+
+    HttpProtocolBuilder httpProtocol = http
+        .baseUrl(TestConfig.BASE_URL + TestConfig.API_PATH)
+        .acceptHeader("application/json")
+        .contentTypeHeader("application/json")
+        .header(TestConfig.API_KEY_HEADER, TestConfig.API_KEY);
+
+    {
+        if (TestConfig.HTTP2) {
+            httpProtocol = httpProtocol.enableHttp2();
+        }
+    }
+
+    ScenarioBuilder mixedOperations = scenario("Soak Mixed API Operations")
+        .exec(ApiLoadSimulation.mixedOperations(UserBodies.NAME.render("Updated", "Name"),
+            List.of(responseTimeInMillis().transform(SoakMonitor::record))));
+
+    {
+        setUp(
+            mixedOperations.injectOpen(
+                constantUsersPerSec(rate).during(Duration.ofMinutes(minutes))
+            )
+        ).protocols(httpProtocol)
+            .assertions(global().successfulRequests().percent().gt(95.0));
+    }
+
+    private ForkedTarget target;
+    private SoakMonitor monitor;
+
+    @Override
+    public void before() {
+        try {
+            if (forkTarget) {
+                target = ForkedTarget.start(TestConfig.LOCAL_HOST, TestConfig.LOCAL_PORT, DIR);
+            } else {
+                ReqResStandIn.startIfLocal();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting the forked stand-in", e);
+        }
+        URI stats = target != null ? target.statsUri() : URI.create(TestConfig.BASE_URL + "/__stats");
+        monitor = new SoakMonitor(sampleSeconds * 1000L, stats);
+        monitor.start();
+        System.out.printf(Locale.ROOT, "Soak: %d min at %.1f users/s against %s%s, sampled every %d s%n",
+            minutes, rate, TestConfig.BASE_URL, forkTarget ? " (forked stand-in)" : "", sampleSeconds);
+    }
+
+    @Override
+    public void after() {
+        try {
+            List<SoakMonitor.Interval> intervals = monitor.stop();
+            SoakReport report = new SoakReport(intervals, warmupSeconds);
+            System.out.printf(Locale.ROOT, "Soak report: %d samples, first %d s excluded from trends, %d target samples failed%n",
+                intervals.size(), warmupSeconds, monitor.targetFailures());
+            report.lines().forEach(System.out::println);
+            report.writeCsv(DIR.resolve("soak.csv"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (target != null) {
+                target.close();
+            }
+            ReqResStandIn.stopShared();
+        }
+    }
+}
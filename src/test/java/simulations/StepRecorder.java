@@ -0,0 +1,120 @@
+package simulations;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import server.ReqResStandIn;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide, lock-free recorder for one capacity-search step.
+ * Requests issued during the warm-up window are not counted.
+ * Also tracks the load generator's CPU time over the window: the process CPU time less that of
+ * an in-process stand-in.
+ */
+public final class StepRecorder {
+
+    private static final Recorder LATENCY = new Recorder(3);
+    private static final LongAdder SENT = new LongAdder();
+    private static final LongAdder OK = new LongAdder();
+    private static volatile long measureFromNanos = Long.MAX_VALUE;
+    private static volatile long measureToNanos = Long.MAX_VALUE;
+    private static final AtomicBoolean CPU_STARTED = new AtomicBoolean();
+    private static volatile long cpuFromNanos;
+    private static volatile long cpuToNanos;
+
+    private StepRecorder() {}
+
+    /**
+     * Starts a new step whose measurement window opens after the warm-up
+     */
+    static void reset(long warmupNanos) {
+        SENT.reset();
+        OK.reset();
+        LATENCY.reset();
+        measureFromNanos = System.nanoTime() + warmupNanos;
+        measureToNanos = Long.MAX_VALUE;
+        CPU_STARTED.set(false);
+    }
+
+    static void sent() {
+        if (measuring()) {
+            if (!CPU_STARTED.get() && CPU_STARTED.compareAndSet(false, true)) {
+                cpuFromNanos = generatorCpuNanos();
+            }
+            SENT.increment();
+        }
+    }
+
+    static int ok(int responseTimeMillis) {
+        if (measuring()) {
+            OK.increment();
+            LATENCY.recordValue(responseTimeMillis);
+        }
+        return responseTimeMillis;
+    }
+
+    private static boolean measuring() {
+        long now = System.nanoTime();
+        return now >= measureFromNanos && now < measureToNanos;
+    }
+
+    /**
+     * Closes the measurement window; requests completing afterwards are ignored
+     */
+    static void stop() {
+        measureToNanos = System.nanoTime();
+        cpuToNanos = generatorCpuNanos();
+    }
+
+    private static long generatorCpuNanos() {
+        long process = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+            .getProcessCpuTime();
+        return process - ReqResStandIn.cpuNanos();
+    }
+
+    /**
+     * Closes the window if still open and returns what was recorded
+     */
+    static Snapshot finish() {
+        if (measureToNanos == Long.MAX_VALUE) {
+            stop();
+        }
+        double seconds = Math.max(1e-9, (measureToNanos - measureFromNanos) / 1e9);
+        double cpuSeconds = CPU_STARTED.get() ? Math.max(0, cpuToNanos - cpuFromNanos) / 1e9 : 0;
+        return new Snapshot(LATENCY.getIntervalHistogram(), SENT.sum(), OK.sum(), seconds, cpuSeconds);
+    }
+
+    static final class Snapshot {
+        final Histogram latencyMillis;
+        final long sent;
+        final long ok;
+        final double seconds;
+        final double generatorCpuSeconds;
+
+        Snapshot(Histogram latencyMillis, long sent, long ok, double seconds, double generatorCpuSeconds) {
+            this.latencyMillis = latencyMillis;
+            this.sent = sent;
+            this.ok = ok;
+            this.seconds = seconds;
+            this.generatorCpuSeconds = generatorCpuSeconds;
+        }
+
+        double errorRate() {
+            return sent == 0 ? 0 : Math.max(0, sent - ok) / (double) sent;
+        }
+
+        double throughput() {
+            return sent / seconds;
+        }
+
+        /**
+         * Requests one fully busy load generator core would send at this step's cost per request
+         */
+        double requestsPerGeneratorCore() {
+            return generatorCpuSeconds == 0 ? 0 : sent / generatorCpuSeconds;
+        }
+    }
+}
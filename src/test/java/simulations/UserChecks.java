@@ -0,0 +1,73 @@
+package simulations;
+
+import contract.SchemaRegistry;
+import io.gatling.javaapi.core.CheckBuilder;
+
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+
+/**
+ * Body checks of the user read scenarios: one JsonChecks pass, and the chain of jsonPath()
+ * checks it replaced, kept so CheckComparison can measure the difference
+ */
+final class UserChecks {
+
+    static final CheckBuilder.Final SINGLE_USER = singleUserFields().build();
+
+    /**
+     * SINGLE_USER plus the single-user contract, still one parse of the body
+     */
+    static final CheckBuilder.Final SINGLE_USER_CONTRACT = singleUserFields().schema(SchemaRegistry.SINGLE_USER).build();
+
+    static final CheckBuilder.Final USER_LIST = JsonChecks.expect()
+        .is("$.page", "1")
+        .is("$.per_page", "6")
+        .type("$.data", JsonChecks.Type.ARRAY)
+        .exists("$.total")
+        .exists("$.total_pages")
+        .build();
+
+    private UserChecks() {}
+
+    private static JsonChecks singleUserFields() {
+        return JsonChecks.expect()
+            .is("$.data.id", "2")
+            .exists("$.data.email")
+            .exists("$.data.first_name")
+            .exists("$.data.last_name")
+            .exists("$.data.avatar")
+            .exists("$.support.url");
+    }
+
+    /**
+     * GET /users/2 body checks, combined or as jsonPath() checks
+     */
+    static List<CheckBuilder> singleUser(boolean combined) {
+        if (combined) {
+            return List.of(SINGLE_USER);
+        }
+        return List.of(
+            jsonPath("$.data.id").is("2"),
+            jsonPath("$.data.email").exists(),
+            jsonPath("$.data.first_name").exists(),
+            jsonPath("$.data.last_name").exists(),
+            jsonPath("$.data.avatar").exists(),
+            jsonPath("$.support.url").exists());
+    }
+
+    /**
+     * GET /users?page=1&per_page=6 body checks, combined or as jsonPath() checks
+     */
+    static List<CheckBuilder> userList(boolean combined) {
+        if (combined) {
+            return List.of(USER_LIST);
+        }
+        return List.of(
+            jsonPath("$.page").is("1"),
+            jsonPath("$.per_page").is("6"),
+            jsonPath("$.data").exists(),
+            jsonPath("$.total").exists(),
+            jsonPath("$.total_pages").exists());
+    }
+}
@@ -0,0 +1,133 @@
+package soak;
+
+import server.ReqResStandIn;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The stand-in in a JVM of its own, so that a soak run sees the target's heap, GC, threads and
+ * file descriptors apart from the load generator's. The child gets this JVM's api.* properties,
+ * the JVM options in -Dsoak.targetJvmArgs and a GC log next to its output.
+ */
+public final class ForkedTarget implements AutoCloseable {
+
+    private static final long STARTUP_TIMEOUT_MILLIS = 60_000;
+
+    private final Process process;
+    private final URI stats;
+
+    private ForkedTarget(Process process, URI stats) {
+        this.process = process;
+        this.stats = stats;
+    }
+
+    /**
+     * Starts the stand-in on host:port and waits until its /__stats answers; output goes to dir
+     */
+    public static ForkedTarget start(String host, int port, Path dir) throws IOException, InterruptedException {
+        Files.createDirectories(dir);
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xlog:gc:file=" + dir.resolve("target-gc.log"));
+        for (String option : System.getProperty("soak.targetJvmArgs", "").trim().split("\\s+")) {
+            if (!option.isEmpty()) {
+                command.add(option);
+            }
+        }
+        command.add("-cp");
+        command.add(classPath());
+        System.getProperties().stringPropertyNames().stream()
+            .filter(name -> name.startsWith("api."))
+            .forEach(name -> command.add("-D" + name + "=" + System.getProperty(name)));
+        command.add(ReqResStandIn.class.getName());
+        command.add(String.valueOf(port));
+
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(dir.resolve("target.log").toFile())
+            .start();
+        ForkedTarget target = new ForkedTarget(process, URI.create("http://" + host + ":" + port + "/__stats"));
+        try {
+            target.awaitReady();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            target.close();
+            throw e;
+        }
+        return target;
+    }
+
+    public URI statsUri() {
+        return stats;
+    }
+
+    private void awaitReady() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STARTUP_TIMEOUT_MILLIS);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Forked stand-in exited with " + process.exitValue() + ", see target.log");
+            }
+            try {
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(stats).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IOException("Forked stand-in did not answer " + stats + " within " + STARTUP_TIMEOUT_MILLIS + " ms");
+    }
+
+    /**
+     * exec:java runs main() in a URLClassLoader; a plain java launch has the class path in java.class.path
+     */
+    private static String classPath() {
+        ClassLoader loader = ForkedTarget.class.getClassLoader();
+        if (loader instanceof URLClassLoader) {
+            return Arrays.stream(((URLClassLoader) loader).getURLs())
+                .map(url -> {
+                    try {
+                        return new File(url.toURI()).getPath();
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Cannot use class path entry " + url, e);
+                    }
+                })
+                .collect(Collectors.joining(File.pathSeparator));
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    /**
+     * Stops the stand-in through its shutdown hook, so a persistent store is flushed
+     */
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+}
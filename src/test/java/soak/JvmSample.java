@@ -0,0 +1,159 @@
+package soak;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.sun.management.GcInfo;
+import com.sun.management.UnixOperatingSystemMXBean;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Point-in-time resource usage of one JVM, taken from its platform MXBeans. The stand-in serves
+ * its own at /__stats, so a load generator can sample a target running in another process.
+ *
+ * GC counters are cumulative since JVM start; for the stop-the-world collectors of G1 and
+ * Parallel the collection time is the pause time. Heap after GC is the heap in use right after
+ * the most recent collection of any collector, a better leak signal than the used heap, which
+ * mostly follows the allocation rate.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class JvmSample {
+
+    private static final Set<String> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .map(MemoryPoolMXBean::getName)
+        .collect(Collectors.toSet());
+
+    private long timeMillis;
+    private long heapUsedBytes;
+    private long heapAfterGcBytes;
+    private long gcCount;
+    private long gcMillis;
+    private int threads;
+    private long openFds = -1;
+    private int connectionsOpen = -1;
+
+    public JvmSample() {}
+
+    /**
+     * Usage of this JVM now, without a connection count
+     */
+    public static JvmSample current() {
+        return current(-1);
+    }
+
+    /**
+     * Usage of this JVM now; connectionsOpen is the server's open connections, or -1 when unknown
+     */
+    public static JvmSample current(int connectionsOpen) {
+        JvmSample sample = new JvmSample();
+        sample.timeMillis = System.currentTimeMillis();
+        sample.heapUsedBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long lastGcEnd = -1;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sample.gcCount += Math.max(0, gc.getCollectionCount());
+            sample.gcMillis += Math.max(0, gc.getCollectionTime());
+            if (gc instanceof com.sun.management.GarbageCollectorMXBean) {
+                GcInfo last = ((com.sun.management.GarbageCollectorMXBean) gc).getLastGcInfo();
+                if (last != null && last.getEndTime() > lastGcEnd) {
+                    lastGcEnd = last.getEndTime();
+                    sample.heapAfterGcBytes = heapBytes(last.getMemoryUsageAfterGc());
+                }
+            }
+        }
+        sample.threads = ManagementFactory.getThreadMXBean().getThreadCount();
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof UnixOperatingSystemMXBean) {
+            sample.openFds = ((UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount();
+        }
+        sample.connectionsOpen = connectionsOpen;
+        return sample;
+    }
+
+    private static long heapBytes(Map<String, MemoryUsage> pools) {
+        long bytes = 0;
+        for (Map.Entry<String, MemoryUsage> pool : pools.entrySet()) {
+            if (HEAP_POOLS.contains(pool.getKey())) {
+                bytes += pool.getValue().getUsed();
+            }
+        }
+        return bytes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public void setTimeMillis(long timeMillis) {
+        this.timeMillis = timeMillis;
+    }
+
+    public long getHeapUsedBytes() {
+        return heapUsedBytes;
+    }
+
+    public void setHeapUsedBytes(long heapUsedBytes) {
+        this.heapUsedBytes = heapUsedBytes;
+    }
+
+    /**
+     * Heap in use after the latest collection, 0 before the first one
+     */
+    public long getHeapAfterGcBytes() {
+        return heapAfterGcBytes;
+    }
+
+    public void setHeapAfterGcBytes(long heapAfterGcBytes) {
+        this.heapAfterGcBytes = heapAfterGcBytes;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public void setGcCount(long gcCount) {
+        this.gcCount = gcCount;
+    }
+
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    public void setGcMillis(long gcMillis) {
+        this.gcMillis = gcMillis;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Open file descriptors, sockets included; -1 where the OS does not report them
+     */
+    public long getOpenFds() {
+        return openFds;
+    }
+
+    public void setOpenFds(long openFds) {
+        this.openFds = openFds;
+    }
+
+    public int getConnectionsOpen() {
+        return connectionsOpen;
+    }
+
+    public void setConnectionsOpen(int connectionsOpen) {
+        this.connectionsOpen = connectionsOpen;
+    }
+}
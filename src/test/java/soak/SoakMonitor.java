@@ -0,0 +1,162 @@
+package soak;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the load generator's JVM, the target's /__stats and the response times recorded since
+ * the previous sample at a fixed interval, on a daemon thread, for SoakReport.
+ *
+ * Response times reach it through record(), which simulations call from a
+ * responseTimeInMillis() transform check like StepRecorder::ok.
+ */
+public final class SoakMonitor {
+
+    private static final Recorder LATENCY = new Recorder(3);
+
+    private final long intervalMillis;
+    private final URI targetStats;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<Interval> intervals = new ArrayList<>();
+    private ScheduledExecutorService sampler;
+    private long startNanos;
+    private JvmSample lastGenerator;
+    private JvmSample lastTarget;
+    private int targetFailures;
+
+    /**
+     * targetStats is the target's /__stats URI, or null to sample the load generator only
+     */
+    public SoakMonitor(long intervalMillis, URI targetStats) {
+        this.intervalMillis = intervalMillis;
+        this.targetStats = targetStats;
+    }
+
+    public static int record(int responseTimeMillis) {
+        LATENCY.recordValue(responseTimeMillis);
+        return responseTimeMillis;
+    }
+
+    public synchronized void start() {
+        if (sampler != null) {
+            return;
+        }
+        LATENCY.reset();
+        intervals.clear();
+        startNanos = System.nanoTime();
+        lastGenerator = JvmSample.current();
+        lastTarget = targetSample();
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "soak-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sampling and returns the intervals, the last one cut short at the time of the call
+     */
+    public List<Interval> stop() throws InterruptedException {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = sampler;
+            sampler = null;
+        }
+        if (running == null) {
+            return List.of();
+        }
+        running.shutdown();
+        running.awaitTermination(10, TimeUnit.SECONDS);
+        sample();
+        synchronized (this) {
+            return new ArrayList<>(intervals);
+        }
+    }
+
+    /**
+     * Samples whose /__stats request failed; their intervals have no target sample
+     */
+    public synchronized int targetFailures() {
+        return targetFailures;
+    }
+
+    private void sample() {
+        Histogram latency = LATENCY.getIntervalHistogram();
+        JvmSample generator = JvmSample.current();
+        JvmSample target = targetSample();
+        synchronized (this) {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            intervals.add(new Interval(seconds, latency, generator, lastGenerator, target, lastTarget));
+            lastGenerator = generator;
+            if (target != null) {
+                lastTarget = target;
+            }
+        }
+    }
+
+    private JvmSample targetSample() {
+        if (targetStats == null) {
+            return null;
+        }
+        try {
+            HttpResponse<byte[]> response = client.send(
+                HttpRequest.newBuilder(targetStats).timeout(Duration.ofSeconds(2)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 200) {
+                return mapper.readValue(response.body(), JvmSample.class);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Counted below; a target too busy to answer is itself worth reporting
+        }
+        synchronized (this) {
+            targetFailures++;
+        }
+        return null;
+    }
+
+    /**
+     * One sampling interval: the response times recorded in it and the state of both JVMs at its
+     * end, with their GC activity during it
+     */
+    public static final class Interval {
+        /** Seconds from start() to the end of the interval */
+        final double seconds;
+        final Histogram latencyMillis;
+        final JvmSample generator;
+        final long generatorGcCount;
+        final long generatorGcMillis;
+        /** Null when the target could not be sampled */
+        final JvmSample target;
+        final long targetGcCount;
+        final long targetGcMillis;
+
+        Interval(double seconds, Histogram latencyMillis, JvmSample generator, JvmSample previousGenerator,
+                 JvmSample target, JvmSample previousTarget) {
+            this.seconds = seconds;
+            this.latencyMillis = latencyMillis;
+            this.generator = generator;
+            this.generatorGcCount = generator.getGcCount() - previousGenerator.getGcCount();
+            this.generatorGcMillis = generator.getGcMillis() - previousGenerator.getGcMillis();
+            this.target = target;
+            boolean delta = target != null && previousTarget != null;
+            this.targetGcCount = delta ? target.getGcCount() - previousTarget.getGcCount() : 0;
+            this.targetGcMillis = delta ? target.getGcMillis() - previousTarget.getGcMillis() : 0;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package soak;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Final report of a soak run.
+ *
+ * Leaks: after the warm-up, each resource series (heap after GC, threads, open file descriptors,
+ * open connections) of both JVMs gets a Trend. A series is flagged when it grows monotonically,
+ * with Kendall's tau of at least -Dsoak.leakTau (0.6), and its fitted growth over the run exceeds
+ * both a floor for the unit and 10% of its starting level. Latency drift is the same test on the
+ * per-interval p99. GC: per-interval p99 is correlated with each JVM's GC pause time, and the p99
+ * of intervals with and without a pause are compared, to tell GC-driven drift from other causes.
+ */
+public final class SoakReport {
+
+    private static final double MB = 1024.0 * 1024.0;
+    private static final double MIN_RELATIVE_GROWTH = 0.10;
+    private static final double MIN_DRIFT_MILLIS = 1.0;
+    private static final double GC_CORRELATION = 0.5;
+
+    private final List<SoakMonitor.Interval> intervals;
+    private final double warmupSeconds;
+    private final double leakTau = Double.parseDouble(System.getProperty("soak.leakTau", "0.6"));
+
+    public SoakReport(List<SoakMonitor.Interval> intervals, double warmupSeconds) {
+        this.intervals = intervals;
+        this.warmupSeconds = warmupSeconds;
+    }
+
+    public List<String> lines() {
+        List<SoakMonitor.Interval> measured = new ArrayList<>();
+        for (SoakMonitor.Interval interval : intervals) {
+            if (interval.seconds > warmupSeconds) {
+                measured.add(interval);
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        if (measured.size() < 3) {
+            lines.add(String.format(Locale.ROOT, "Only %d samples after the %.0f s warm-up; run longer to see trends",
+                measured.size(), warmupSeconds));
+            return lines;
+        }
+        List<SoakMonitor.Interval> withTarget = new ArrayList<>();
+        for (SoakMonitor.Interval interval : measured) {
+            if (interval.target != null) {
+                withTarget.add(interval);
+            }
+        }
+
+        List<String> leaks = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "%-30s %12s %12s %14s %6s", "resource", "start", "end", "per minute", "tau"));
+        resource(lines, leaks, "generator heap after GC (MB)", measured, i -> i.generator.getHeapAfterGcBytes() / MB, 8);
+        resource(lines, leaks, "generator threads", measured, i -> i.generator.getThreads(), 2);
+        if (measured.get(0).generator.getOpenFds() >= 0) {
+            resource(lines, leaks, "generator open fds", measured, i -> i.generator.getOpenFds(), 4);
+        }
+        if (withTarget.size() >= 3) {
+            resource(lines, leaks, "target heap after GC (MB)", withTarget, i -> i.target.getHeapAfterGcBytes() / MB, 8);
+            resource(lines, leaks, "target threads", withTarget, i -> i.target.getThreads(), 2);
+            if (withTarget.get(0).target.getOpenFds() >= 0) {
+                resource(lines, leaks, "target open fds", withTarget, i -> i.target.getOpenFds(), 4);
+            }
+            if (withTarget.get(0).target.getConnectionsOpen() >= 0) {
+                resource(lines, leaks, "target open connections", withTarget, i -> i.target.getConnectionsOpen(), 4);
+            }
+        }
+        lines.addAll(leaks.isEmpty() ? List.of("No monotonic resource growth") : leaks);
+
+        List<SoakMonitor.Interval> answered = new ArrayList<>();
+        for (SoakMonitor.Interval interval : measured) {
+            if (interval.latencyMillis.getTotalCount() > 0) {
+                answered.add(interval);
+            }
+        }
+        if (answered.size() < 3) {
+            lines.add("Too few intervals with responses to judge latency");
+            return lines;
+        }
+        double[] p99 = series(answered, i -> i.latencyMillis.getValueAtPercentile(99.0));
+        Trend latency = Trend.of(series(answered, i -> i.seconds), p99);
+        boolean drifted = latency.tau >= leakTau
+            && latency.end - latency.start >= Math.max(MIN_DRIFT_MILLIS, MIN_RELATIVE_GROWTH * latency.start);
+        lines.add(String.format(Locale.ROOT, "Latency p99: %.1f ms -> %.1f ms (fitted), %+.3f ms/min, tau %.2f%s",
+            latency.start, latency.end, latency.slope * 60, latency.tau, drifted ? "  DRIFT" : ""));
+
+        double generatorR = gc(lines, "generator", answered, p99, i -> i.generatorGcMillis, i -> i.generatorGcCount);
+        double targetR = Double.NaN;
+        List<SoakMonitor.Interval> answeredWithTarget = new ArrayList<>();
+        for (SoakMonitor.Interval interval : answered) {
+            if (interval.target != null) {
+                answeredWithTarget.add(interval);
+            }
+        }
+        if (answeredWithTarget.size() >= 3) {
+            targetR = gc(lines, "target", answeredWithTarget, series(answeredWithTarget, i -> i.latencyMillis.getValueAtPercentile(99.0)),
+                i -> i.targetGcMillis, i -> i.targetGcCount);
+        }
+        if (drifted) {
+            // NaN, for a target without samples, compares false
+            String cause = generatorR >= GC_CORRELATION && !(targetR > generatorR) ? "the load generator"
+                : targetR >= GC_CORRELATION ? "the target" : null;
+            lines.add(cause == null ? "Latency drift does not follow GC pauses of either JVM"
+                : "Latency drift follows GC pauses of " + cause);
+        }
+        return lines;
+    }
+
+    private void resource(List<String> lines, List<String> leaks, String name, List<SoakMonitor.Interval> samples,
+                          ToDoubleFunction<SoakMonitor.Interval> value, double floor) {
+        Trend trend = Trend.of(series(samples, i -> i.seconds), series(samples, value));
+        double growth = trend.end - trend.start;
+        boolean leak = trend.tau >= leakTau && growth >= Math.max(floor, MIN_RELATIVE_GROWTH * Math.abs(trend.start));
+        lines.add(String.format(Locale.ROOT, "%-30s %12.1f %12.1f %+14.3f %6.2f%s",
+            name, trend.start, trend.end, trend.slope * 60, trend.tau, leak ? "  LEAK?" : ""));
+        if (leak) {
+            leaks.add(String.format(Locale.ROOT, "Possible leak: %s grew monotonically from %.1f to %.1f (tau %.2f)",
+                name, trend.start, trend.end, trend.tau));
+        }
+    }
+
+    /**
+     * Prints the GC line of one JVM and returns the correlation of its pause time with p99
+     */
+    private static double gc(List<String> lines, String jvm, List<SoakMonitor.Interval> samples, double[] p99,
+                             ToDoubleFunction<SoakMonitor.Interval> pauseMillis, ToDoubleFunction<SoakMonitor.Interval> collections) {
+        double[] pauses = series(samples, pauseMillis);
+        double total = 0;
+        double max = 0;
+        double withGc = 0;
+        double withoutGc = 0;
+        int intervalsWithGc = 0;
+        long count = 0;
+        for (int i = 0; i < pauses.length; i++) {
+            total += pauses[i];
+            max = Math.max(max, pauses[i]);
+            count += (long) collections.applyAsDouble(samples.get(i));
+            if (pauses[i] > 0) {
+                withGc += p99[i];
+                intervalsWithGc++;
+            } else {
+                withoutGc += p99[i];
+            }
+        }
+        double r = Trend.correlation(p99, pauses);
+        int withoutCount = pauses.length - intervalsWithGc;
+        lines.add(String.format(Locale.ROOT,
+            "GC %-9s: %d collections, %.0f ms paused (max %.0f ms per interval); p99 %s with GC vs %s without; r(p99, pause) %.2f",
+            jvm, count, total, max,
+            intervalsWithGc == 0 ? "-" : String.format(Locale.ROOT, "%.1f ms", withGc / intervalsWithGc),
+            withoutCount == 0 ? "-" : String.format(Locale.ROOT, "%.1f ms", withoutGc / withoutCount), r));
+        return r;
+    }
+
+    /**
+     * One row per interval, warm-up included
+     */
+    public void writeCsv(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("seconds,responses,p50_ms,p99_ms,max_ms,"
+                + "gen_heap_used_mb,gen_heap_after_gc_mb,gen_gc_count,gen_gc_ms,gen_threads,gen_fds,"
+                + "target_heap_used_mb,target_heap_after_gc_mb,target_gc_count,target_gc_ms,target_threads,target_fds,target_connections\n");
+            for (SoakMonitor.Interval i : intervals) {
+                StringBuilder row = new StringBuilder(256).append(String.format(Locale.ROOT, "%.1f,%d,%d,%d,%d,%.1f,%.1f,%d,%d,%d,%d",
+                    i.seconds, i.latencyMillis.getTotalCount(), i.latencyMillis.getValueAtPercentile(50.0),
+                    i.latencyMillis.getValueAtPercentile(99.0), i.latencyMillis.getMaxValue(),
+                    i.generator.getHeapUsedBytes() / MB, i.generator.getHeapAfterGcBytes() / MB, i.generatorGcCount,
+                    i.generatorGcMillis, i.generator.getThreads(), i.generator.getOpenFds()));
+                if (i.target != null) {
+                    row.append(String.format(Locale.ROOT, ",%.1f,%.1f,%d,%d,%d,%d,%d",
+                        i.target.getHeapUsedBytes() / MB, i.target.getHeapAfterGcBytes() / MB, i.targetGcCount,
+                        i.targetGcMillis, i.target.getThreads(), i.target.getOpenFds(), i.target.getConnectionsOpen()));
+                } else {
+                    row.append(",,,,,,,");
+                }
+                out.write(row.append('\n').toString());
+            }
+        }
+    }
+
+    private static double[] series(List<SoakMonitor.Interval> samples, ToDoubleFunction<SoakMonitor.Interval> value) {
+        double[] values = new double[samples.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value.applyAsDouble(samples.get(i));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,124 @@
+package soak;
+
+import java.util.Arrays;
+
+/**
+ * Robust trend of one series over time: the Theil-Sen slope (median of all pairwise slopes, so a
+ * few GC spikes or outliers do not tilt it) and Kendall's tau against time, which is 1 when every
+ * later sample is above every earlier one and near 0 for a flat or noisy series.
+ * O(n^2) in the number of points, so longer series are first averaged into MAX_POINTS
+ * consecutive buckets.
+ */
+final class Trend {
+
+    static final int MAX_POINTS = 2000;
+
+    /** Change per second */
+    final double slope;
+    /** Monotonicity in [-1, 1] */
+    final double tau;
+    /** Fitted values at the first and last point */
+    final double start;
+    final double end;
+
+    private Trend(double slope, double tau, double start, double end) {
+        this.slope = slope;
+        this.tau = tau;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Trend of y over x seconds; fewer than 3 points give a flat trend
+     */
+    static Trend of(double[] x, double[] y) {
+        if (x.length > MAX_POINTS) {
+            x = buckets(x, MAX_POINTS);
+            y = buckets(y, MAX_POINTS);
+        }
+        int n = x.length;
+        if (n < 3) {
+            double level = n == 0 ? 0 : y[n - 1];
+            return new Trend(0, 0, level, level);
+        }
+        long pairs = (long) n * (n - 1) / 2;
+        double[] slopes = new double[(int) pairs];
+        int count = 0;
+        long concordant = 0;
+        long discordant = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                if (dx != 0) {
+                    slopes[count++] = dy / dx;
+                }
+                if (dx * dy > 0) {
+                    concordant++;
+                } else if (dx * dy < 0) {
+                    discordant++;
+                }
+            }
+        }
+        double slope = count == 0 ? 0 : median(Arrays.copyOf(slopes, count));
+        double[] intercepts = new double[n];
+        for (int i = 0; i < n; i++) {
+            intercepts[i] = y[i] - slope * x[i];
+        }
+        double intercept = median(intercepts);
+        double tau = (concordant - discordant) / (double) pairs;
+        return new Trend(slope, tau, intercept + slope * x[0], intercept + slope * x[n - 1]);
+    }
+
+    /**
+     * Means of count consecutive, nearly equal slices of values, in order
+     */
+    private static double[] buckets(double[] values, int count) {
+        double[] means = new double[count];
+        for (int b = 0; b < count; b++) {
+            int from = (int) ((long) values.length * b / count);
+            int to = (int) ((long) values.length * (b + 1) / count);
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += values[i];
+            }
+            means[b] = sum / (to - from);
+        }
+        return means;
+    }
+
+    /**
+     * Pearson correlation of a and b, 0 when either is constant
+     */
+    static double correlation(double[] a, double[] b) {
+        int n = a.length;
+        if (n < 2) {
+            return 0;
+        }
+        double meanA = 0;
+        double meanB = 0;
+        for (int i = 0; i < n; i++) {
+            meanA += a[i];
+            meanB += b[i];
+        }
+        meanA /= n;
+        meanB /= n;
+        double covariance = 0;
+        double varianceA = 0;
+        double varianceB = 0;
+        for (int i = 0; i < n; i++) {
+            double da = a[i] - meanA;
+            double db = b[i] - meanB;
+            covariance += da * db;
+            varianceA += da * da;
+            varianceB += db * db;
+        }
+        return varianceA == 0 || varianceB == 0 ? 0 : covariance / Math.sqrt(varianceA * varianceB);
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        int mid = values.length / 2;
+        return values.length % 2 == 1 ? values[mid] : (values[mid - 1] + values[mid]) / 2;
+    }
+}
@@ -0,0 +1,54 @@
+package tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One HTTP call to the API, with where its time went.
+ *
+ * The event spans the whole call. Phases that did not happen (no new connection, plain HTTP)
+ * or that the client cannot observe are 0; the rest of the duration is client overhead such as
+ * pool leasing and filters.
+ */
+@Name(ApiCallEvent.NAME)
+@Label("API Call")
+@Category({"API Tests", "HTTP"})
+@Description("HTTP call made by the tests or simulations, with a per-phase timing breakdown")
+@StackTrace(false)
+public class ApiCallEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "api.Call";
+
+    @Label("Method")
+    String method;
+
+    @Label("Endpoint")
+    @Description("Path template, e.g. /users/{userId}")
+    String endpoint;
+
+    @Label("Status")
+    @Description("HTTP status, or 0 when no response arrived")
+    int status;
+
+    @Label("Connect")
+    @Timespan(Timespan.NANOSECONDS)
+    long connect;
+
+    @Label("TLS Handshake")
+    @Timespan(Timespan.NANOSECONDS)
+    long tls;
+
+    @Label("Time to First Byte")
+    @Description("From sending the request until the response headers were read")
+    @Timespan(Timespan.NANOSECONDS)
+    long ttfb;
+
+    @Label("Body Download")
+    @Description("From the response headers until the body was read completely")
+    @Timespan(Timespan.NANOSECONDS)
+    long download;
+}
@@ -0,0 +1,123 @@
+package tracing;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates the ApiCallEvent and MappingEvent records of a JFR file into per-endpoint phase
+ * percentiles, with mapping listed per target type. Connect and TLS only count calls that opened
+ * a connection, so their n says how often that happened.
+ *
+ * mvn exec:java -Dexec.mainClass=tracing.CallReport -Dexec.classpathScope=test -Dexec.args=target/api-calls.jfr
+ */
+public final class CallReport {
+
+    private static final String[] PHASES = {"total", "connect", "tls", "ttfb", "download"};
+
+    private final Map<String, Endpoint> endpoints = new TreeMap<>();
+
+    /**
+     * Adds every API event of the recording
+     */
+    public CallReport read(Path recording) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (ApiCallEvent.NAME.equals(type)) {
+                    addCall(event);
+                } else if (MappingEvent.NAME.equals(type)) {
+                    addMapping(event);
+                }
+            }
+        }
+        return this;
+    }
+
+    private void addCall(RecordedEvent event) {
+        Endpoint endpoint = endpoint(event.getString("method") + " " + event.getString("endpoint"));
+        endpoint.statuses.merge(event.getInt("status"), 1, Integer::sum);
+        endpoint.record("total", event.getDuration().toNanos());
+        endpoint.record("connect", event.getLong("connect"));
+        endpoint.record("tls", event.getLong("tls"));
+        endpoint.record("ttfb", event.getLong("ttfb"));
+        endpoint.record("download", event.getLong("download"));
+    }
+
+    private void addMapping(RecordedEvent event) {
+        String type = event.getString("type");
+        Endpoint endpoint = endpoint(event.getString("method") + " " + event.getString("endpoint"));
+        endpoint.record("mapping " + type.substring(type.lastIndexOf('.') + 1), event.getDuration().toNanos());
+    }
+
+    private Endpoint endpoint(String name) {
+        return endpoints.computeIfAbsent(name, key -> new Endpoint());
+    }
+
+    public void print(PrintStream out) {
+        if (endpoints.isEmpty()) {
+            out.println("No API events recorded");
+            return;
+        }
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint endpoint = entry.getValue();
+            out.print(entry.getKey());
+            if (!endpoint.statuses.isEmpty()) {
+                out.print("  status");
+                endpoint.statuses.forEach((status, count) -> out.print(" " + status + ":" + count));
+            }
+            out.println();
+            out.printf(Locale.ROOT, "  %-28s %7s %9s %9s %9s %9s%n", "phase (ms)", "n", "p50", "p95", "p99", "max");
+            for (Map.Entry<String, Histogram> phase : endpoint.phases.entrySet()) {
+                Histogram h = phase.getValue();
+                out.printf(Locale.ROOT, "  %-28s %7d %9.2f %9.2f %9.2f %9.2f%n", phase.getKey(), h.getTotalCount(),
+                    h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(95) / 1e3,
+                    h.getValueAtPercentile(99) / 1e3, h.getMaxValue() / 1e3);
+            }
+        }
+    }
+
+    /**
+     * Phase latencies (microseconds) of one endpoint, in PHASES order
+     */
+    private static final class Endpoint {
+        final Map<Integer, Integer> statuses = new TreeMap<>();
+        final Map<String, Histogram> phases = new TreeMap<>(
+            Comparator.comparingInt(Endpoint::order).thenComparing(Comparator.naturalOrder()));
+
+        void record(String phase, long nanos) {
+            // A phase that did not happen is 0; total is recorded regardless
+            if (nanos <= 0 && !"total".equals(phase)) {
+                return;
+            }
+            Histogram histogram = phases.computeIfAbsent(phase, key -> new Histogram(TimeUnit.MINUTES.toMicros(10), 3));
+            histogram.recordValue(Math.min(histogram.getHighestTrackableValue(), Math.max(0, nanos / 1_000)));
+        }
+
+        private static int order(String phase) {
+            for (int i = 0; i < PHASES.length; i++) {
+                if (PHASES[i].equals(phase)) {
+                    return i;
+                }
+            }
+            return PHASES.length;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path recording = Paths.get(args.length > 0 ? args[0] : "target/api-calls.jfr");
+        System.out.println("API calls in " + recording.toAbsolutePath());
+        new CallReport().read(recording).print(System.out);
+    }
+}
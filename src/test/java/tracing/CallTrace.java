@@ -0,0 +1,73 @@
+package tracing;
+
+/**
+ * Phase timestamps of the blocking call in progress on the current thread.
+ *
+ * TracingFilter opens a trace around each RestAssured call while a recording is running; the
+ * transport reports into it from the same thread (connect and TLS from the socket factory,
+ * request sent and headers received from HttpClient interceptors). Without an open trace every
+ * report is a no-op.
+ */
+public final class CallTrace {
+
+    private static final ThreadLocal<CallTrace> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<CallTrace> LAST = new ThreadLocal<>();
+
+    final String method;
+    final String endpoint;
+    long connectNanos;
+    long tlsNanos;
+    long sentAt;
+    long headersAt;
+
+    private CallTrace(String method, String endpoint) {
+        this.method = method;
+        this.endpoint = endpoint;
+    }
+
+    static CallTrace open(String method, String endpoint) {
+        CallTrace trace = new CallTrace(method, endpoint);
+        CURRENT.set(trace);
+        LAST.set(trace);
+        return trace;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * The most recent traced call on this thread, or null
+     */
+    static CallTrace last() {
+        return LAST.get();
+    }
+
+    public static void connected(long nanos) {
+        CallTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.connectNanos += nanos;
+        }
+    }
+
+    public static void handshaken(long nanos) {
+        CallTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.tlsNanos += nanos;
+        }
+    }
+
+    public static void requestSent() {
+        CallTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.sentAt = System.nanoTime();
+        }
+    }
+
+    public static void headersReceived() {
+        CallTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.headersAt = System.nanoTime();
+        }
+    }
+}
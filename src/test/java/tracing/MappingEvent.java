@@ -0,0 +1,31 @@
+package tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Jackson mapping of a response body into a model, e.g. SingleUserResponse.
+ * It happens after the call, when the test asks for the body, so it is a separate event
+ * attributed to the last call on the same thread.
+ */
+@Name(MappingEvent.NAME)
+@Label("API Response Mapping")
+@Category({"API Tests", "HTTP"})
+@Description("Deserialization of an API response body into a model class")
+@StackTrace(false)
+public class MappingEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "api.Mapping";
+
+    @Label("Method")
+    String method;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Type")
+    String type;
+}
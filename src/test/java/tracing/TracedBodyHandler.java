@@ -0,0 +1,48 @@
+package tracing;
+
+import java.net.http.HttpResponse;
+
+/**
+ * Body handler for java.net.http requests that emits an ApiCallEvent when the body has arrived.
+ * Create one per request, right before sending it. The client does not expose connection setup,
+ * so time to first byte includes it, and requests that fail before a response are not recorded.
+ */
+public final class TracedBodyHandler<T> implements HttpResponse.BodyHandler<T> {
+
+    private final ApiCallEvent event;
+    private final HttpResponse.BodyHandler<T> body;
+    private final long sentAt = System.nanoTime();
+
+    private TracedBodyHandler(ApiCallEvent event, HttpResponse.BodyHandler<T> body) {
+        this.event = event;
+        this.body = body;
+    }
+
+    /**
+     * The body handler, traced while a recording is running
+     */
+    public static <T> HttpResponse.BodyHandler<T> of(String method, String endpoint, HttpResponse.BodyHandler<T> body) {
+        ApiCallEvent event = new ApiCallEvent();
+        if (!event.isEnabled()) {
+            return body;
+        }
+        event.method = method;
+        event.endpoint = endpoint;
+        event.begin();
+        return new TracedBodyHandler<>(event, body);
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo response) {
+        long headersAt = System.nanoTime();
+        event.status = response.statusCode();
+        event.ttfb = headersAt - sentAt;
+        HttpResponse.BodySubscriber<T> subscriber = body.apply(response);
+        subscriber.getBody().whenComplete((value, error) -> {
+            event.end();
+            event.download = System.nanoTime() - headersAt;
+            event.commit();
+        });
+        return subscriber;
+    }
+}
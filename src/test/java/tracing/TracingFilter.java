@@ -0,0 +1,55 @@
+package tracing;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * RestAssured filter that emits an ApiCallEvent per call while a JFR recording is running.
+ * Added last, so the span covers the HTTP exchange and not the other filters.
+ * Connect, TLS and time to first byte are only known with the pooled transport.
+ */
+public final class TracingFilter implements Filter {
+
+    public static final TracingFilter INSTANCE = new TracingFilter();
+
+    private TracingFilter() {}
+
+    @Override
+    public Response filter(FilterableRequestSpecification request, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        ApiCallEvent event = new ApiCallEvent();
+        if (!event.isEnabled()) {
+            return ctx.next(request, responseSpec);
+        }
+        event.method = request.getMethod();
+        event.endpoint = endpoint(request.getUserDefinedPath());
+        CallTrace trace = CallTrace.open(event.method, event.endpoint);
+        event.begin();
+        try {
+            Response response = ctx.next(request, responseSpec);
+            // Read the body here, so its download is part of the call rather than of whoever reads it later
+            response.asByteArray();
+            event.status = response.statusCode();
+            return response;
+        } finally {
+            long end = System.nanoTime();
+            event.end();
+            CallTrace.close();
+            event.connect = trace.connectNanos;
+            event.tls = trace.tlsNanos;
+            if (trace.sentAt != 0 && trace.headersAt != 0) {
+                event.ttfb = trace.headersAt - trace.sentAt;
+                event.download = end - trace.headersAt;
+            }
+            event.commit();
+        }
+    }
+
+    private static String endpoint(String path) {
+        int query = path.indexOf('?');
+        return query < 0 ? path : path.substring(0, query);
+    }
+}
@@ -0,0 +1,47 @@
+package tracing;
+
+import io.restassured.internal.mapping.Jackson2Mapper;
+import io.restassured.mapper.ObjectMapper;
+import io.restassured.mapper.ObjectMapperDeserializationContext;
+import io.restassured.mapper.ObjectMapperSerializationContext;
+import io.restassured.path.json.mapper.factory.DefaultJackson2ObjectMapperFactory;
+
+/**
+ * RestAssured's own Jackson 2 mapper, with a MappingEvent around every deserialization.
+ * The mapper is configured exactly as RestAssured's default, so the recorded times are those
+ * the tests pay without a recording.
+ */
+public final class TracingObjectMapper implements ObjectMapper {
+
+    public static final TracingObjectMapper INSTANCE = new TracingObjectMapper();
+
+    private final ObjectMapper jackson = new Jackson2Mapper(new DefaultJackson2ObjectMapperFactory());
+
+    private TracingObjectMapper() {}
+
+    @Override
+    public Object deserialize(ObjectMapperDeserializationContext context) {
+        MappingEvent event = new MappingEvent();
+        if (!event.isEnabled()) {
+            return jackson.deserialize(context);
+        }
+        event.begin();
+        try {
+            return jackson.deserialize(context);
+        } finally {
+            event.end();
+            CallTrace call = CallTrace.last();
+            if (call != null) {
+                event.method = call.method;
+                event.endpoint = call.endpoint;
+            }
+            event.type = context.getType().getTypeName();
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object serialize(ObjectMapperSerializationContext context) {
+        return jackson.serialize(context);
+    }
+}
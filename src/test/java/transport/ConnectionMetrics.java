@@ -0,0 +1,79 @@
+package transport;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the pooled transport: how many connections were opened versus
+ * leased from the pool, and where connection setup time went.
+ */
+public class ConnectionMetrics {
+
+    private final LongAdder leased = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder connectNanos = new LongAdder();
+    private final LongAdder handshakes = new LongAdder();
+    private final LongAdder resumedSessions = new LongAdder();
+    private final LongAdder handshakeNanos = new LongAdder();
+
+    void recordLease() {
+        leased.increment();
+    }
+
+    void recordConnect(long nanos) {
+        created.increment();
+        connectNanos.add(nanos);
+    }
+
+    void recordHandshake(long nanos, boolean resumed) {
+        handshakes.increment();
+        handshakeNanos.add(nanos);
+        if (resumed) {
+            resumedSessions.increment();
+        }
+    }
+
+    public long leased() {
+        return leased.sum();
+    }
+
+    public long created() {
+        return created.sum();
+    }
+
+    /**
+     * Leases served by an already open connection
+     */
+    public long reused() {
+        return Math.max(0, leased() - created());
+    }
+
+    public long connectMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(connectNanos.sum());
+    }
+
+    public long handshakes() {
+        return handshakes.sum();
+    }
+
+    public long resumedSessions() {
+        return resumedSessions.sum();
+    }
+
+    public long handshakeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(handshakeNanos.sum());
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionMetrics{" +
+                "leased=" + leased() +
+                ", created=" + created() +
+                ", reused=" + reused() +
+                ", connectMs=" + connectMillis() +
+                ", tlsHandshakes=" + handshakes() +
+                ", tlsResumed=" + resumedSessions() +
+                ", tlsHandshakeMs=" + handshakeMillis() +
+                '}';
+    }
+}
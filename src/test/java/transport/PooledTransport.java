@@ -0,0 +1,141 @@
+package transport;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import tracing.CallTrace;
+
+import javax.net.ssl.SSLContext;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared keep-alive connection pool for RestAssured.
+ *
+ * RestAssured's default configuration builds a fresh HttpClient per request, so every call
+ * pays TCP connect and TLS handshake. This transport hands RestAssured one pooled client
+ * instead. Tuning is done through system properties:
+ *
+ * -Dapi.pool.maxPerRoute (default 64), -Dapi.pool.maxTotal (default 256),
+ * -Dapi.pool.idleSeconds (default 30), -Dapi.pool.ttlSeconds (default 300),
+ * -Dapi.pool.tlsSessionCache (default 1024 sessions)
+ */
+@SuppressWarnings("deprecation")
+public final class PooledTransport {
+
+    private static final int MAX_PER_ROUTE = Integer.getInteger("api.pool.maxPerRoute", 64);
+    private static final int MAX_TOTAL = Integer.getInteger("api.pool.maxTotal", 256);
+    private static final int IDLE_SECONDS = Integer.getInteger("api.pool.idleSeconds", 30);
+    private static final int TTL_SECONDS = Integer.getInteger("api.pool.ttlSeconds", 300);
+    private static final int TLS_SESSION_CACHE = Integer.getInteger("api.pool.tlsSessionCache", 1024);
+
+    private static volatile PooledTransport shared;
+
+    private final ConnectionMetrics metrics = new ConnectionMetrics();
+    private final PoolingClientConnectionManager connectionManager;
+    private final DefaultHttpClient client;
+    private final ScheduledExecutorService evictor;
+
+    private PooledTransport() {
+        // A context of its own, so the session cache size does not leak into the JVM-wide default
+        SSLContext sslContext;
+        try {
+            sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, null, null);
+        } catch (NoSuchAlgorithmException | KeyManagementException e) {
+            throw new IllegalStateException("Cannot create a TLS context", e);
+        }
+        sslContext.getClientSessionContext().setSessionCacheSize(TLS_SESSION_CACHE);
+
+        SchemeRegistry schemes = new SchemeRegistry();
+        schemes.register(new Scheme("http", 80, new TimedSocketFactory(null, metrics)));
+        schemes.register(new Scheme("https", 443, new TimedSocketFactory(sslContext, metrics)));
+
+        connectionManager = new PoolingClientConnectionManager(schemes, TTL_SECONDS, TimeUnit.SECONDS) {
+            @Override
+            public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+                metrics.recordLease();
+                return super.requestConnection(route, state);
+            }
+        };
+        connectionManager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+        connectionManager.setMaxTotal(MAX_TOTAL);
+
+        HttpParams params = new BasicHttpParams();
+        HttpConnectionParams.setTcpNoDelay(params, true);
+        // A pooled connection the server closed while idle would fail the next request, and the
+        // default retry handler does not resend PUTs with a body; check before each reuse instead
+        HttpConnectionParams.setStaleCheckingEnabled(params, true);
+        client = new DefaultHttpClient(connectionManager, params);
+        // Run after connecting and after reading the response head, marking time to first byte for tracing
+        client.addRequestInterceptor((request, context) -> CallTrace.requestSent());
+        client.addResponseInterceptor((response, context) -> CallTrace.headersReceived());
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "api-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, IDLE_SECONDS / 2);
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(IDLE_SECONDS, TimeUnit.SECONDS);
+        }, period, period, TimeUnit.SECONDS);
+    }
+
+    public static PooledTransport shared() {
+        PooledTransport transport = shared;
+        if (transport == null) {
+            synchronized (PooledTransport.class) {
+                transport = shared;
+                if (transport == null) {
+                    transport = new PooledTransport();
+                    shared = transport;
+                }
+            }
+        }
+        return transport;
+    }
+
+    /**
+     * RestAssured client config that always hands out the pooled client
+     */
+    public HttpClientConfig httpClientConfig() {
+        return HttpClientConfig.httpClientConfig()
+            .httpClientFactory(() -> client)
+            .reuseHttpClientInstance();
+    }
+
+    /**
+     * Filter that reads every response body to the end so its connection goes back to the pool
+     * even when the test never touches the body (DELETE, status-only checks)
+     */
+    public Filter releaseFilter() {
+        return (request, response, ctx) -> {
+            Response result = ctx.next(request, response);
+            result.asByteArray();
+            return result;
+        };
+    }
+
+    public ConnectionMetrics metrics() {
+        return metrics;
+    }
+
+    public PoolStats poolStats() {
+        return connectionManager.getTotalStats();
+    }
+}
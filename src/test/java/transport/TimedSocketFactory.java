@@ -0,0 +1,88 @@
+package transport;
+
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.HttpInetSocketAddress;
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import tracing.CallTrace;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+/**
+ * Socket factory that times TCP connect and TLS handshake separately.
+ * All TLS sockets come from one SSLContext, so its client session cache lets
+ * repeat connections to the same host resume sessions instead of full handshakes.
+ */
+@SuppressWarnings("deprecation")
+class TimedSocketFactory implements SchemeSocketFactory {
+
+    private final SSLContext sslContext;
+    private final HostnameVerifier hostnameVerifier = new DefaultHostnameVerifier();
+    private final ConnectionMetrics metrics;
+
+    /**
+     * @param sslContext context for TLS connections, or null for plain sockets
+     */
+    TimedSocketFactory(SSLContext sslContext, ConnectionMetrics metrics) {
+        this.sslContext = sslContext;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Socket createSocket(HttpParams params) {
+        return new Socket();
+    }
+
+    @Override
+    public Socket connectSocket(Socket socket, InetSocketAddress remote, InetSocketAddress local,
+                                HttpParams params) throws IOException {
+        Socket sock = socket != null ? socket : createSocket(params);
+        if (local != null) {
+            sock.setReuseAddress(HttpConnectionParams.getSoReuseaddr(params));
+            sock.bind(local);
+        }
+        long start = System.nanoTime();
+        try {
+            sock.connect(remote, HttpConnectionParams.getConnectionTimeout(params));
+        } catch (SocketTimeoutException e) {
+            throw new ConnectTimeoutException("Connect to " + remote + " timed out");
+        }
+        long connectNanos = System.nanoTime() - start;
+        metrics.recordConnect(connectNanos);
+        CallTrace.connected(connectNanos);
+        if (sslContext == null) {
+            return sock;
+        }
+
+        String host = remote instanceof HttpInetSocketAddress
+            ? ((HttpInetSocketAddress) remote).getHttpHost().getHostName()
+            : remote.getHostName();
+        SSLSocket ssl = (SSLSocket) sslContext.getSocketFactory().createSocket(sock, host, remote.getPort(), true);
+        long handshakeStart = System.currentTimeMillis();
+        start = System.nanoTime();
+        ssl.startHandshake();
+        long elapsed = System.nanoTime() - start;
+        // A resumed session was created by an earlier handshake
+        metrics.recordHandshake(elapsed, ssl.getSession().getCreationTime() < handshakeStart);
+        CallTrace.handshaken(elapsed);
+        if (!hostnameVerifier.verify(host, ssl.getSession())) {
+            ssl.close();
+            throw new SSLPeerUnverifiedException("Certificate does not match host " + host);
+        }
+        return ssl;
+    }
+
+    @Override
+    public boolean isSecure(Socket sock) {
+        return sock instanceof SSLSocket;
+    }
+}